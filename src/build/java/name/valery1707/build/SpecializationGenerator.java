@@ -0,0 +1,182 @@
+package name.valery1707.build;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generator of monomorphic specialisations of {@code CollectionIteration}: one class per collection with field of concrete type
+ * and one {@code @Benchmark} method per mode and size with body of mode inlined, without {@code switch} over {@code mode}.
+ * Every method has own bytecode, so type profiles of call sites are not shared between modes and collections.
+ * <p>
+ * Bodies of modes are copied from source of {@code CollectionIteration}, and generation fails when names of collections
+ * diverge from {@code CollectionFactory} or {@code CollectionIteration}, so specialisations never measure other code.
+ * <p>
+ * Runs from Maven profile {@code specialize} as single-file source program (no compilation of build tooling is required):
+ * $ mvn -Pspecialize clean package
+ * $ java -jar target/benchmarks.jar 'CollectionIteration' -rf json -rff target/result.json
+ * $ java -cp target/benchmarks.jar name.valery1707.runner.DispatchSkew target/result.json
+ */
+public final class SpecializationGenerator {
+    private static final String PACKAGE = "name.valery1707.jmh.specialized";
+    private static final String SOURCE = "CollectionIteration";
+    private static final String FACTORY = "CollectionFactory";
+    private static final Pattern REGISTER = Pattern.compile("register\\(\"([^\"]+)\"");
+    private static final Pattern STRING = Pattern.compile("\"([^\"]+)\"");
+
+    /**
+     * Type of field by name of factory from {@code CollectionFactory}, interface for non-public classes of JDK.
+     * Names must be same as registered in {@code CollectionFactory} and listed in {@code @Param clazz} of {@code CollectionIteration}.
+     */
+    private static final Map<String, String> TYPES = new LinkedHashMap<>();
+
+    static {
+        TYPES.put("java.util.HashSet", "java.util.HashSet<Integer>");
+        TYPES.put("java.util.TreeSet", "java.util.TreeSet<Integer>");
+        TYPES.put("java.util.ArrayList", "java.util.ArrayList<Integer>");
+        TYPES.put("java.util.LinkedList", "java.util.LinkedList<Integer>");
+        TYPES.put("java.util.ArrayDeque", "java.util.ArrayDeque<Integer>");
+        TYPES.put("java.util.PriorityQueue", "java.util.PriorityQueue<Integer>");
+        TYPES.put("Arrays.asList", "java.util.List<Integer>");
+        TYPES.put("List.of", "java.util.List<Integer>");
+        TYPES.put("Set.of", "java.util.Set<Integer>");
+        TYPES.put("Collections.unmodifiableList", "java.util.List<Integer>");
+        TYPES.put("Collections.unmodifiableSet", "java.util.Set<Integer>");
+        TYPES.put("CompactHashSet", "name.valery1707.collection.CompactHashSet<Integer>");
+    }
+
+    private static final List<String> SIZES = List.of("1", "10", "100", "1_000", "10_000", "100_000", "1_000_000");
+
+    private SpecializationGenerator() {
+    }
+
+    /**
+     * @param args Root directory of generated sources and root directory of sources of benchmarks
+     * @throws IOException Possible exception
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: SpecializationGenerator <output directory> <sources directory>");
+        }
+        Path sources = Paths.get(args[1]).resolve("name/valery1707/jmh");
+        String benchmark = new String(Files.readAllBytes(sources.resolve(SOURCE + ".java")), UTF_8);
+        String factory = new String(Files.readAllBytes(sources.resolve(FACTORY + ".java")), UTF_8);
+        check(FACTORY, matches(REGISTER, factory));
+        check(SOURCE, param(benchmark, "clazz"));
+        Map<String, String> modes = modes(benchmark);
+        Path dir = Paths.get(args[0]).resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(dir);
+        for (Map.Entry<String, String> type : TYPES.entrySet()) {
+            StringBuilder name = new StringBuilder(SOURCE).append('_');
+            for (String part : type.getKey().replaceAll("^java\\.util\\.", "").split("\\.")) {
+                name.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+            }
+            Files.write(dir.resolve(name + ".java"), source(name.toString(), type.getKey(), type.getValue(), modes).getBytes(UTF_8));
+        }
+        System.out.println("Generated " + TYPES.size() + " specialisations of " + SOURCE + " into " + dir);
+    }
+
+    private static Set<String> matches(Pattern pattern, String text) {
+        Set<String> values = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            values.add(matcher.group(1));
+        }
+        return values;
+    }
+
+    /**
+     * @return Values of {@code @Param} of field {@code name}
+     */
+    private static Set<String> param(String source, String name) {
+        Matcher matcher = Pattern.compile("@Param\\(\\{([^}]*)}\\)\\s+public String " + name + ";").matcher(source);
+        if (!matcher.find()) {
+            throw new IllegalStateException("There is no @Param " + name + " in " + SOURCE);
+        }
+        return matches(STRING, matcher.group(1));
+    }
+
+    private static void check(String source, Set<String> names) {
+        if (!names.equals(TYPES.keySet())) {
+            throw new IllegalStateException("Collections of " + source + " " + names + " differ from specialised " + TYPES.keySet());
+        }
+    }
+
+    /**
+     * @return Bodies of methods of modes from {@code @Param mode} by name of mode
+     */
+    private static Map<String, String> modes(String source) {
+        Map<String, String> modes = new LinkedHashMap<>();
+        for (String mode : param(source, "mode")) {
+            Matcher matcher = Pattern.compile("\\n    public void " + mode + "\\(final Blackhole hole\\) \\{\\n(.*?\\n)    }\\n", Pattern.DOTALL).matcher(source);
+            if (!matcher.find()) {
+                throw new IllegalStateException("There is no method of mode " + mode + " in " + SOURCE);
+            }
+            modes.put(mode, matcher.group(1));
+        }
+        return modes;
+    }
+
+    private static String source(String name, String factory, String type, Map<String, String> modes) {
+        StringBuilder source = new StringBuilder();
+        source.append(""
+                + "package " + PACKAGE + ";\n"
+                + "\n"
+                + "import name.valery1707.jmh.CollectionFactory;\n"
+                + "import org.openjdk.jmh.annotations.*;\n"
+                + "import org.openjdk.jmh.infra.BenchmarkParams;\n"
+                + "import org.openjdk.jmh.infra.Blackhole;\n"
+                + "\n"
+                + "import java.util.Iterator;\n"
+                + "import java.util.concurrent.TimeUnit;\n"
+                + "\n"
+                + "/**\n"
+                + " * Generated by {@code name.valery1707.build.SpecializationGenerator}: {@code " + SOURCE + "} specialised for {@code " + factory + "}\n"
+                + " */\n"
+                + "@SuppressWarnings({\"DefaultAnnotationParam\", \"Convert2MethodRef\", \"WhileLoopReplaceableByForEach\"})\n"
+                + "@BenchmarkMode(Mode.AverageTime)\n"
+                + "@OutputTimeUnit(TimeUnit.NANOSECONDS)\n"
+                + "@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)\n"
+                + "@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)\n"
+                + "@Fork(1)\n"
+                + "@State(Scope.Thread)\n"
+                + "public class " + name + " {\n"
+                + "    /**\n"
+                + "     * Single value, keeps results comparable with {@code " + SOURCE + "}\n"
+                + "     */\n"
+                + "    @Param(\"" + factory + "\")\n"
+                + "    public String clazz;\n"
+                + "\n"
+                + "    private " + type + " collection;\n"
+                + "\n"
+                + "    @Setup\n"
+                + "    public void setup(BenchmarkParams params) {\n"
+                + "        String method = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);\n"
+                + "        int size = Integer.parseInt(method.substring(method.indexOf('_') + 1).replace(\"_\", \"\"));\n"
+                + "        collection = (" + type + ") CollectionFactory.create(clazz, size);\n"
+                + "    }\n");
+        for (Map.Entry<String, String> mode : modes.entrySet()) {
+            for (String size : SIZES) {
+                source.append(""
+                        + "\n"
+                        + "    @Benchmark\n"
+                        + "    @OperationsPerInvocation(" + size + ")\n"
+                        + "    public void " + mode.getKey() + "_" + size + "(final Blackhole hole) {\n"
+                        + mode.getValue()
+                        + "    }\n");
+            }
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+}
@@ -1,11 +1,15 @@
 package name.valery1707;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 import static java.util.Spliterators.spliteratorUnknownSize;
@@ -48,4 +52,138 @@ public class Utils {
                 d -> next.getAndSet(null).get()
         ));
     }
+
+    /**
+     * Lazy pipeline over {@code source} as lightweight alternative to {@link Stream} for small collections.
+     *
+     * @param source Source of elements
+     * @param <T>    Type of elements
+     * @return Pipeline without stages
+     * @see Pipeline
+     */
+    public static <T> Pipeline<T> pipeline(Iterable<? extends T> source) {
+        return new Pipeline<>(source);
+    }
+
+    /**
+     * Sequential lazy pipeline which fuses all stages into single loop over source.
+     * <p>
+     * Stages are stored as plain arrays of functions and interpreted for every element by terminal operation:
+     * there are no per-stage sink objects and no {@link Spliterator}.
+     * Intermediate operations mutate and return same instance, so pipeline must be used once, as {@link Stream}.
+     *
+     * @param <T> Type of elements on output of last stage
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static final class Pipeline<T> {
+        private static final byte MAP = 0;
+        private static final byte FILTER = 1;
+        private static final byte LIMIT = 2;
+        private static final byte FLAT_MAP = 3;
+
+        private final Iterable<?> source;
+        private byte[] kinds = new byte[4];
+        private Object[] functions = new Object[4];
+        private long[] limits = new long[4];
+        private int count;
+
+        private Pipeline(Iterable<?> source) {
+            this.source = source;
+        }
+
+        private <R> Pipeline<R> stage(byte kind, Object function, long limit) {
+            if (count == kinds.length) {
+                kinds = Arrays.copyOf(kinds, count * 2);
+                functions = Arrays.copyOf(functions, count * 2);
+                limits = Arrays.copyOf(limits, count * 2);
+            }
+            kinds[count] = kind;
+            functions[count] = function;
+            limits[count] = limit;
+            count++;
+            return (Pipeline<R>) this;
+        }
+
+        public <R> Pipeline<R> map(Function<? super T, ? extends R> mapper) {
+            return stage(MAP, mapper, 0);
+        }
+
+        public Pipeline<T> filter(Predicate<? super T> predicate) {
+            return stage(FILTER, predicate, 0);
+        }
+
+        public Pipeline<T> limit(long maxSize) {
+            if (maxSize < 0) {
+                throw new IllegalArgumentException(Long.toString(maxSize));
+            }
+            return stage(LIMIT, null, maxSize);
+        }
+
+        public <R> Pipeline<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> mapper) {
+            return stage(FLAT_MAP, mapper, 0);
+        }
+
+        public void forEach(Consumer<? super T> action) {
+            if (count == 0) {
+                for (Object element : source) {
+                    action.accept((T) element);
+                }
+                return;
+            }
+            long[] passed = new long[count];
+            for (Object element : source) {
+                if (!push(element, 0, passed, (Consumer) action)) {
+                    return;
+                }
+            }
+        }
+
+        public <A, R> R collect(Collector<? super T, A, R> collector) {
+            A container = collector.supplier().get();
+            BiConsumer<A, ? super T> accumulator = collector.accumulator();
+            forEach(element -> accumulator.accept(container, element));
+            if (collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+                return (R) container;
+            }
+            return collector.finisher().apply(container);
+        }
+
+        /**
+         * Pass element through stages starting from {@code stage}
+         *
+         * @return {@code false} if some limit is reached and source must not be read anymore
+         */
+        private boolean push(Object element, int stage, long[] passed, Consumer<Object> action) {
+            boolean last = false;
+            for (int i = stage; i < count; i++) {
+                switch (kinds[i]) {
+                    case MAP:
+                        element = ((Function) functions[i]).apply(element);
+                        break;
+                    case FILTER:
+                        if (!((Predicate) functions[i]).test(element)) {
+                            return !last;
+                        }
+                        break;
+                    case LIMIT:
+                        if (passed[i] >= limits[i]) {
+                            return false;
+                        }
+                        last |= ++passed[i] == limits[i];
+                        break;
+                    case FLAT_MAP:
+                        for (Object inner : (Iterable<?>) ((Function) functions[i]).apply(element)) {
+                            if (!push(inner, i + 1, passed, action)) {
+                                return false;
+                            }
+                        }
+                        return !last;
+                    default:
+                        throw new IllegalStateException("Unknown stage: " + kinds[i]);
+                }
+            }
+            action.accept(element);
+            return !last;
+        }
+    }
 }
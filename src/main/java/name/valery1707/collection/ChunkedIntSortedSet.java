@@ -0,0 +1,303 @@
+package name.valery1707.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorted set of {@code int} stored as list of sorted {@code int[]} chunks.
+ * <p>
+ * Every chunk holds up to {@link #CHUNK_CAPACITY} values and is never empty,
+ * so ordered iteration is a linear scan over few arrays instead of node chasing as in {@link java.util.TreeSet}.
+ * Full chunk is split in halves on insert, except appending to the end which starts new chunk.
+ * <p>
+ * Not thread safe, iterators are not fail-fast.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ChunkedIntSortedSet extends AbstractSet<Integer> {
+    static final int CHUNK_CAPACITY = 1024;
+
+    private int[][] chunks = new int[4][];
+    private int[] lengths = new int[4];
+    private int chunkCount;
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * @param value Value
+     * @return Index of last chunk with first value not greater than {@code value} or {@code 0}
+     */
+    private int chunkFor(int value) {
+        int lo = 0;
+        int hi = chunkCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (chunks[mid][0] <= value) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private void insertChunk(int index, int[] chunk, int length) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            lengths = Arrays.copyOf(lengths, chunkCount * 2);
+        }
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        System.arraycopy(lengths, index, lengths, index + 1, chunkCount - index);
+        chunks[index] = chunk;
+        lengths[index] = length;
+        chunkCount++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+        System.arraycopy(lengths, index + 1, lengths, index, chunkCount - index - 1);
+        chunks[--chunkCount] = null;
+    }
+
+    public boolean add(int value) {
+        if (chunkCount == 0) {
+            int[] chunk = new int[CHUNK_CAPACITY];
+            chunk[0] = value;
+            insertChunk(0, chunk, 1);
+            size = 1;
+            return true;
+        }
+        int c = chunkFor(value);
+        int[] chunk = chunks[c];
+        int length = lengths[c];
+        int pos = Arrays.binarySearch(chunk, 0, length, value);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (length == CHUNK_CAPACITY) {
+            int[] next = new int[CHUNK_CAPACITY];
+            if (c == chunkCount - 1 && pos == length) {
+                insertChunk(c + 1, next, 0);
+                c++;
+                chunk = next;
+                pos = 0;
+                length = 0;
+            } else {
+                int half = length >>> 1;
+                System.arraycopy(chunk, half, next, 0, length - half);
+                lengths[c] = half;
+                insertChunk(c + 1, next, length - half);
+                if (pos > half) {
+                    c++;
+                    chunk = next;
+                    pos -= half;
+                    length -= half;
+                } else {
+                    length = half;
+                }
+            }
+        }
+        System.arraycopy(chunk, pos, chunk, pos + 1, length - pos);
+        chunk[pos] = value;
+        lengths[c] = length + 1;
+        size++;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (chunkCount == 0) {
+            return false;
+        }
+        int c = chunkFor(value);
+        return Arrays.binarySearch(chunks[c], 0, lengths[c], value) >= 0;
+    }
+
+    public boolean remove(int value) {
+        if (chunkCount == 0) {
+            return false;
+        }
+        int c = chunkFor(value);
+        int pos = Arrays.binarySearch(chunks[c], 0, lengths[c], value);
+        if (pos < 0) {
+            return false;
+        }
+        removeAt(c, pos);
+        return true;
+    }
+
+    /**
+     * @return {@code true} if whole chunk was removed
+     */
+    private boolean removeAt(int c, int pos) {
+        int[] chunk = chunks[c];
+        int length = --lengths[c];
+        System.arraycopy(chunk, pos + 1, chunk, pos, length - pos);
+        size--;
+        if (length == 0) {
+            removeChunk(c);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param value Value
+     * @return Greatest element less than or equal to {@code value}
+     */
+    public OptionalInt floor(int value) {
+        if (chunkCount == 0) {
+            return OptionalInt.empty();
+        }
+        int c = chunkFor(value);
+        int[] chunk = chunks[c];
+        int pos = Arrays.binarySearch(chunk, 0, lengths[c], value);
+        if (pos >= 0) {
+            return OptionalInt.of(chunk[pos]);
+        }
+        pos = -pos - 1;
+        return pos > 0 ? OptionalInt.of(chunk[pos - 1]) : OptionalInt.empty();
+    }
+
+    /**
+     * @param value Value
+     * @return Least element greater than or equal to {@code value}
+     */
+    public OptionalInt ceiling(int value) {
+        if (chunkCount == 0) {
+            return OptionalInt.empty();
+        }
+        int c = chunkFor(value);
+        int[] chunk = chunks[c];
+        int pos = Arrays.binarySearch(chunk, 0, lengths[c], value);
+        if (pos >= 0) {
+            return OptionalInt.of(chunk[pos]);
+        }
+        pos = -pos - 1;
+        if (pos < lengths[c]) {
+            return OptionalInt.of(chunk[pos]);
+        }
+        return c + 1 < chunkCount ? OptionalInt.of(chunks[c + 1][0]) : OptionalInt.empty();
+    }
+
+    /**
+     * Ordered iteration without boxing
+     *
+     * @param action Action for every element
+     */
+    public void forEachInt(IntConsumer action) {
+        for (int c = 0; c < chunkCount; c++) {
+            int[] chunk = chunks[c];
+            for (int i = 0, length = lengths[c]; i < length; i++) {
+                action.accept(chunk[i]);
+            }
+        }
+    }
+
+    /**
+     * Ordered range scan, same elements as in {@code subSet(fromInclusive, toExclusive)}
+     *
+     * @param fromInclusive Low endpoint
+     * @param toExclusive   High endpoint
+     * @param action        Action for every element in range
+     */
+    public void forEachInt(int fromInclusive, int toExclusive, IntConsumer action) {
+        if (chunkCount == 0 || fromInclusive >= toExclusive) {
+            return;
+        }
+        int c = chunkFor(fromInclusive);
+        int pos = Arrays.binarySearch(chunks[c], 0, lengths[c], fromInclusive);
+        int i = pos >= 0 ? pos : -pos - 1;
+        for (; c < chunkCount; c++, i = 0) {
+            int[] chunk = chunks[c];
+            for (int length = lengths[c]; i < length; i++) {
+                int value = chunk[i];
+                if (value >= toExclusive) {
+                    return;
+                }
+                action.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Integer> action) {
+        Objects.requireNonNull(action);
+        forEachInt(action::accept);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && remove(((Integer) o).intValue());
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int chunk;
+            private int index;
+            private int lastChunk = -1;
+            private int lastIndex;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunkCount;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastChunk = chunk;
+                lastIndex = index;
+                int value = chunks[chunk][index++];
+                if (index == lengths[chunk]) {
+                    chunk++;
+                    index = 0;
+                }
+                return value;
+            }
+
+            @Override
+            public void remove() {
+                if (lastChunk < 0) {
+                    throw new IllegalStateException();
+                }
+                chunk = lastChunk;
+                index = lastIndex;
+                if (!removeAt(lastChunk, lastIndex) && index == lengths[chunk]) {
+                    chunk++;
+                    index = 0;
+                }
+                lastChunk = -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,238 @@
+package name.valery1707.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Insertion-ordered hash set with layout of CPython {@code dict}.
+ * <p>
+ * Elements and their hashes are appended into dense arrays in insertion order,
+ * while sparse open-addressing {@code int[]} index holds only positions in these arrays.
+ * Iteration is a linear scan over dense array without empty buckets and node pointers.
+ * Removed elements leave holes which are compacted on next growth.
+ * <p>
+ * Does not permit {@code null}. Not thread safe, iterators are fail-fast.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CompactHashSet<E> extends AbstractSet<E> {
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private Object[] elements;
+    private int[] hashes;
+    /**
+     * Slots: {@link #FREE}, {@link #DELETED} or position in {@link #elements} plus one
+     */
+    private int[] index;
+    /**
+     * Count of used positions in {@link #elements} including removed
+     */
+    private int used;
+    private int size;
+    private int modCount;
+
+    public CompactHashSet() {
+        this(4);
+    }
+
+    public CompactHashSet(int expectedSize) {
+        allocate(Math.max(expectedSize, 4));
+    }
+
+    private void allocate(int capacity) {
+        elements = new Object[capacity];
+        hashes = new int[capacity];
+        index = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * @return Power of two with fill factor of index not greater than 2/3 for {@code capacity} entries
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity + (capacity >>> 1)) << 1;
+    }
+
+    private static int hash(Object o) {
+        int h = o.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return Slot in index with element or {@code -1}
+     */
+    private int find(Object o, int hash) {
+        int mask = index.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int slot = index[i];
+            if (slot == FREE) {
+                return -1;
+            }
+            if (slot != DELETED) {
+                int entry = slot - 1;
+                if (hashes[entry] == hash && o.equals(elements[entry])) {
+                    return i;
+                }
+            }
+        }
+    }
+
+    private void insertIndex(int hash, int entry) {
+        int mask = index.length - 1;
+        int i = hash & mask;
+        while (index[i] > FREE) {
+            i = (i + 1) & mask;
+        }
+        index[i] = entry + 1;
+    }
+
+    private void rebuild(int capacity) {
+        Object[] oldElements = elements;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        allocate(capacity);
+        used = 0;
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldElements[i] != null) {
+                elements[used] = oldElements[i];
+                hashes[used] = oldHashes[i];
+                insertIndex(oldHashes[i], used);
+                used++;
+            }
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        Objects.requireNonNull(e);
+        int hash = hash(e);
+        if (find(e, hash) >= 0) {
+            return false;
+        }
+        if (used == elements.length) {
+            rebuild(Math.max(size * 2, 4));
+        }
+        elements[used] = e;
+        hashes[used] = hash;
+        insertIndex(hash, used);
+        used++;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && find(o, hash(o)) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        int slot = find(o, hash(o));
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    private void removeSlot(int slot) {
+        elements[index[slot] - 1] = null;
+        index[slot] = DELETED;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, used, null);
+        Arrays.fill(index, FREE);
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return Approximate count of bytes used by internal arrays, without elements itself
+     */
+    public long sizeInBytes() {
+        return elements.length * 4L + hashes.length * 4L + index.length * 4L;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        Object[] elements = this.elements;
+        for (int i = 0, used = this.used; i < used; i++) {
+            Object element = elements[i];
+            if (element != null) {
+                action.accept((E) element);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int next = skip(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            private int skip(int i) {
+                while (i < used && elements[i] == null) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= used) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = skip(next + 1);
+                return (E) elements[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeSlot(find(elements[last], hashes[last]));
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+}
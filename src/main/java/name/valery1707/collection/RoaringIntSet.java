@@ -0,0 +1,497 @@
+package name.valery1707.collection;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap set of {@code int} in spirit of Roaring bitmaps.
+ * <p>
+ * Values are split by high 16 bits into chunks of 64K values, each chunk is stored in one of containers:
+ * <ul>
+ * <li>array - sorted {@code char[]} for sparse chunks up to {@link #ARRAY_MAX} values</li>
+ * <li>bitmap - {@code long[1024]} for dense chunks</li>
+ * <li>run - sorted pairs of {@code (start, length - 1)} for clustered chunks, created only by {@link #runOptimize()}</li>
+ * </ul>
+ * Values are iterated in unsigned order of high bits, so negative values follow positive ones.
+ * <p>
+ * Not thread safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public class RoaringIntSet {
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 16 >>> 6;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int count;
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            containers = Arrays.copyOf(containers, count * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        System.arraycopy(containers, index, containers, index + 1, count - index);
+        keys[index] = key;
+        containers[index] = container;
+        count++;
+    }
+
+    public boolean add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        container = container.add((char) value);
+        containers[index] = container;
+        return container.cardinality() != before;
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            size += containers[i].cardinality();
+        }
+        return size;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Convert containers into run containers where it is smaller
+     *
+     * @return this
+     */
+    public RoaringIntSet runOptimize() {
+        for (int i = 0; i < count; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+        return this;
+    }
+
+    /**
+     * @return Approximate count of bytes used by containers data
+     */
+    public long sizeInBytes() {
+        long bytes = count * 2L;
+        for (int i = 0; i < count; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public static RoaringIntSet or(RoaringIntSet lhs, RoaringIntSet rhs) {
+        RoaringIntSet result = new RoaringIntSet();
+        int l = 0;
+        int r = 0;
+        while (l < lhs.count || r < rhs.count) {
+            if (r == rhs.count || (l < lhs.count && lhs.keys[l] < rhs.keys[r])) {
+                result.insert(result.count, lhs.keys[l], lhs.containers[l].copy());
+                l++;
+            } else if (l == lhs.count || rhs.keys[r] < lhs.keys[l]) {
+                result.insert(result.count, rhs.keys[r], rhs.containers[r].copy());
+                r++;
+            } else {
+                result.insert(result.count, lhs.keys[l], lhs.containers[l].or(rhs.containers[r]));
+                l++;
+                r++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringIntSet and(RoaringIntSet lhs, RoaringIntSet rhs) {
+        RoaringIntSet result = new RoaringIntSet();
+        int l = 0;
+        int r = 0;
+        while (l < lhs.count && r < rhs.count) {
+            if (lhs.keys[l] < rhs.keys[r]) {
+                l++;
+            } else if (rhs.keys[r] < lhs.keys[l]) {
+                r++;
+            } else {
+                Container container = lhs.containers[l].and(rhs.containers[r]);
+                if (container.cardinality() > 0) {
+                    result.insert(result.count, lhs.keys[l], container);
+                }
+                l++;
+                r++;
+            }
+        }
+        return result;
+    }
+
+    private static abstract class Container {
+        /**
+         * @return Container with added value: this or new container of other type
+         */
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract void forEach(int high, IntConsumer action);
+
+        abstract Container copy();
+
+        abstract long sizeInBytes();
+
+        abstract BitmapContainer toBitmap();
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer && other instanceof ArrayContainer) {
+                return ((ArrayContainer) this).or((ArrayContainer) other);
+            }
+            return toBitmap().or(other.toBitmap());
+        }
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other);
+            }
+            if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this);
+            }
+            return toBitmap().and(other.toBitmap());
+        }
+
+        Container runOptimize() {
+            int runs = RunContainer.countRuns(this);
+            return runs * 4L < sizeInBytes() ? RunContainer.of(this, runs) : this;
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int pos = Arrays.binarySearch(values, 0, cardinality, value);
+            if (pos >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            pos = -pos - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), ARRAY_MAX));
+            }
+            System.arraycopy(values, pos, values, pos + 1, cardinality - pos);
+            values[pos] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return cardinality * 2L;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+
+        Container or(ArrayContainer other) {
+            if (cardinality + other.cardinality > ARRAY_MAX) {
+                return toBitmap().or(other.toBitmap());
+            }
+            char[] result = new char[cardinality + other.cardinality];
+            int l = 0;
+            int r = 0;
+            int n = 0;
+            while (l < cardinality && r < other.cardinality) {
+                char lv = values[l];
+                char rv = other.values[r];
+                if (lv < rv) {
+                    result[n++] = lv;
+                    l++;
+                } else if (rv < lv) {
+                    result[n++] = rv;
+                    r++;
+                } else {
+                    result[n++] = lv;
+                    l++;
+                    r++;
+                }
+            }
+            while (l < cardinality) {
+                result[n++] = values[l++];
+            }
+            while (r < other.cardinality) {
+                result[n++] = other.values[r++];
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        ArrayContainer filter(Container other) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            words[value >>> 6] = after;
+            if (before != after) {
+                cardinality++;
+            }
+        }
+
+        @Override
+        Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return BITMAP_WORDS * 8L;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        BitmapContainer or(BitmapContainer other) {
+            long[] result = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] | other.words[i];
+                cardinality += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, cardinality);
+        }
+
+        Container and(BitmapContainer other) {
+            long[] result = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & other.words[i];
+                cardinality += Long.bitCount(result[i]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, cardinality);
+            if (cardinality > ARRAY_MAX) {
+                return bitmap;
+            }
+            char[] values = new char[cardinality];
+            int[] n = {0};
+            bitmap.forEach(0, value -> values[n[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        /**
+         * Pairs of {@code (start, length - 1)}
+         */
+        private final char[] runs;
+        private final int runCount;
+        private final int cardinality;
+
+        private RunContainer(char[] runs, int runCount, int cardinality) {
+            this.runs = runs;
+            this.runCount = runCount;
+            this.cardinality = cardinality;
+        }
+
+        static int countRuns(Container container) {
+            int[] state = {0, -2};
+            container.forEach(0, value -> {
+                if (value != state[1] + 1) {
+                    state[0]++;
+                }
+                state[1] = value;
+            });
+            return state[0];
+        }
+
+        static RunContainer of(Container container, int runCount) {
+            char[] runs = new char[runCount * 2];
+            int[] state = {-1, -2};
+            container.forEach(0, value -> {
+                if (value != state[1] + 1) {
+                    state[0]++;
+                    runs[state[0] * 2] = (char) value;
+                } else {
+                    runs[state[0] * 2 + 1]++;
+                }
+                state[1] = value;
+            });
+            return new RunContainer(runs, runCount, container.cardinality());
+        }
+
+        @Override
+        Container add(char value) {
+            if (contains(value)) {
+                return this;
+            }
+            Container container = cardinality < ARRAY_MAX ? toArray() : toBitmap();
+            return container.add(value);
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 4)];
+            int[] n = {0};
+            forEach(0, value -> values[n[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        boolean contains(char value) {
+            int lo = 0;
+            int hi = runCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int start = runs[mid * 2];
+                if (value < start) {
+                    hi = mid - 1;
+                } else if (value > start + runs[mid * 2 + 1]) {
+                    lo = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int r = 0; r < runCount; r++) {
+                int value = high | runs[r * 2];
+                for (int i = runs[r * 2 + 1]; i >= 0; i--) {
+                    action.accept(value++);
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return runCount * 4L;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            forEach(0, value -> bitmap.set((char) value));
+            return bitmap;
+        }
+
+        @Override
+        Container runOptimize() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package name.valery1707.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for single consumer.
+ * <p>
+ * Producer sequence ({@code tail}) and consumer sequence ({@code head}) are separated with padding
+ * by class hierarchy, so they never share cache line with each other or with buffer reference.
+ * <ul>
+ * <li>{@link #spsc(int)} - single producer: producer and consumer cache sequence of other side,
+ * batch is published with single release store of {@code tail}</li>
+ * <li>{@link #mpsc(int)} - many producers: slots are claimed with CAS on {@code tail}
+ * and every slot is published by release store of element, consumer waits for non-null slot,
+ * so batch is claimed with single CAS but published with release store per element</li>
+ * </ul>
+ *
+ * @param <E> Type of elements
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class RingBuffer<E> {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle TAIL;
+    private static final VarHandle HEAD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(TailField.class, "tail", long.class);
+            HEAD = lookup.findVarHandle(HeadField.class, "head", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final Object[] buffer;
+    final int mask;
+
+    private RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @param capacity Minimal capacity, rounded up to power of two
+     * @param <E>      Type of elements
+     * @return Ring buffer for single producer and single consumer
+     */
+    public static <E> RingBuffer<E> spsc(int capacity) {
+        return new Spsc<>(capacity);
+    }
+
+    /**
+     * @param capacity Minimal capacity, rounded up to power of two
+     * @param <E>      Type of elements
+     * @return Ring buffer for many producers and single consumer
+     */
+    public static <E> RingBuffer<E> mpsc(int capacity) {
+        return new Mpsc<>(capacity);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return Approximate count of elements
+     */
+    public int size() {
+        long head = (long) HEAD.getAcquire(this);
+        long tail = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(tail - head, buffer.length));
+    }
+
+    /**
+     * @param element Element
+     * @return {@code false} if buffer is full
+     */
+    public abstract boolean offer(E element);
+
+    /**
+     * Add all elements or nothing
+     *
+     * @param elements Elements
+     * @param count    Count of elements from start of array
+     * @return {@code false} if buffer has no space for all elements
+     */
+    public abstract boolean offer(Object[] elements, int count);
+
+    /**
+     * @return Next element or {@code null} if buffer is empty
+     */
+    public abstract E poll();
+
+    /**
+     * @param consumer Consumer of elements
+     * @param limit    Maximum count of elements
+     * @return Count of consumed elements
+     */
+    public abstract int drain(Consumer<? super E> consumer, int limit);
+
+    abstract static class Pad0<E> extends RingBuffer<E> {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+
+        Pad0(int capacity) {
+            super(capacity);
+        }
+    }
+
+    abstract static class TailField<E> extends Pad0<E> {
+        volatile long tail;
+        /**
+         * Last seen {@code head}, used only by single producer
+         */
+        long headCache;
+
+        TailField(int capacity) {
+            super(capacity);
+        }
+    }
+
+    abstract static class Pad1<E> extends TailField<E> {
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+
+        Pad1(int capacity) {
+            super(capacity);
+        }
+    }
+
+    abstract static class HeadField<E> extends Pad1<E> {
+        volatile long head;
+        /**
+         * Last seen {@code tail}, used only by consumer
+         */
+        long tailCache;
+
+        HeadField(int capacity) {
+            super(capacity);
+        }
+    }
+
+    abstract static class Pad2<E> extends HeadField<E> {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+
+        Pad2(int capacity) {
+            super(capacity);
+        }
+    }
+
+    static final class Spsc<E> extends Pad2<E> {
+        Spsc(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean offer(E element) {
+            Objects.requireNonNull(element);
+            long t = (long) TAIL.get(this);
+            if (t - headCache >= buffer.length) {
+                headCache = (long) HEAD.getAcquire(this);
+                if (t - headCache >= buffer.length) {
+                    return false;
+                }
+            }
+            buffer[(int) t & mask] = element;
+            TAIL.setRelease(this, t + 1);
+            return true;
+        }
+
+        @Override
+        public boolean offer(Object[] elements, int count) {
+            long t = (long) TAIL.get(this);
+            if (t + count - headCache > buffer.length) {
+                headCache = (long) HEAD.getAcquire(this);
+                if (t + count - headCache > buffer.length) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                buffer[(int) (t + i) & mask] = Objects.requireNonNull(elements[i]);
+            }
+            TAIL.setRelease(this, t + count);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E poll() {
+            long h = (long) HEAD.get(this);
+            if (h >= tailCache) {
+                tailCache = (long) TAIL.getAcquire(this);
+                if (h >= tailCache) {
+                    return null;
+                }
+            }
+            int index = (int) h & mask;
+            E element = (E) buffer[index];
+            buffer[index] = null;
+            HEAD.setRelease(this, h + 1);
+            return element;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int drain(Consumer<? super E> consumer, int limit) {
+            long h = (long) HEAD.get(this);
+            if (h + limit > tailCache) {
+                tailCache = (long) TAIL.getAcquire(this);
+            }
+            int count = (int) Math.min(limit, tailCache - h);
+            for (int i = 0; i < count; i++) {
+                int index = (int) (h + i) & mask;
+                E element = (E) buffer[index];
+                buffer[index] = null;
+                consumer.accept(element);
+            }
+            if (count > 0) {
+                HEAD.setRelease(this, h + count);
+            }
+            return count;
+        }
+    }
+
+    static final class Mpsc<E> extends Pad2<E> {
+        Mpsc(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean offer(E element) {
+            Objects.requireNonNull(element);
+            long t;
+            do {
+                t = (long) TAIL.getVolatile(this);
+                if (t - (long) HEAD.getAcquire(this) >= buffer.length) {
+                    return false;
+                }
+            } while (!TAIL.compareAndSet(this, t, t + 1));
+            SLOT.setRelease(buffer, (int) t & mask, element);
+            return true;
+        }
+
+        @Override
+        public boolean offer(Object[] elements, int count) {
+            for (int i = 0; i < count; i++) {
+                Objects.requireNonNull(elements[i]);
+            }
+            long t;
+            do {
+                t = (long) TAIL.getVolatile(this);
+                if (t + count - (long) HEAD.getAcquire(this) > buffer.length) {
+                    return false;
+                }
+            } while (!TAIL.compareAndSet(this, t, t + count));
+            for (int i = 0; i < count; i++) {
+                SLOT.setRelease(buffer, (int) (t + i) & mask, elements[i]);
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E poll() {
+            long h = (long) HEAD.get(this);
+            int index = (int) h & mask;
+            E element = (E) SLOT.getAcquire(buffer, index);
+            if (element == null) {
+                return null;
+            }
+            buffer[index] = null;
+            HEAD.setRelease(this, h + 1);
+            return element;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int drain(Consumer<? super E> consumer, int limit) {
+            long h = (long) HEAD.get(this);
+            int count = 0;
+            while (count < limit) {
+                int index = (int) (h + count) & mask;
+                E element = (E) SLOT.getAcquire(buffer, index);
+                if (element == null) {
+                    break;
+                }
+                buffer[index] = null;
+                consumer.accept(element);
+                count++;
+            }
+            if (count > 0) {
+                HEAD.setRelease(this, h + count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package name.valery1707.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter split into stripes, every writer should use own stripe.
+ * <p>
+ * Padded stripes are placed on separate cache lines (128 bytes apart, to cover adjacent line prefetch),
+ * unpadded stripes are adjacent {@code long}s and show the cost of false sharing.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StripedCounter {
+    private static final int PADDED_STRIDE = 128 / Long.BYTES;
+
+    private final AtomicLongArray cells;
+    private final int stride;
+    private final int mask;
+
+    /**
+     * @param stripes Minimal count of stripes, rounded up to power of two
+     * @param padded  Place every stripe on own cache line
+     */
+    public StripedCounter(int stripes, boolean padded) {
+        int count = Integer.highestOneBit(Math.max(stripes, 1));
+        if (count < stripes) {
+            count <<= 1;
+        }
+        stride = padded ? PADDED_STRIDE : 1;
+        mask = count - 1;
+        cells = new AtomicLongArray((count + (padded ? 1 : 0)) * stride);
+    }
+
+    /**
+     * @param stripe Index of stripe, usually index of writer thread
+     * @param delta  Value to add
+     */
+    public void add(int stripe, long delta) {
+        int index = ((stripe & mask) + (stride > 1 ? 1 : 0)) * stride;
+        cells.getAndAdd(index, delta);
+    }
+
+    public void increment(int stripe) {
+        add(stripe, 1);
+    }
+
+    public long sum() {
+        long sum = 0;
+        int first = stride > 1 ? 1 : 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get((i + first) * stride);
+        }
+        return sum;
+    }
+}
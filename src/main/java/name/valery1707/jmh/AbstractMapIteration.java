@@ -0,0 +1,125 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Modes of iteration over {@link Map}, shared by benchmarks with different sets of maps and sizes
+ */
+@State(Scope.Thread)
+public abstract class AbstractMapIteration {
+    @Param({"entrySet", "keySetGet", "forEach", "iterator", "stream"})
+    public String mode;
+
+    private Map<?, Integer> map;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        String method = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+        int size = Integer.parseInt(method.replaceAll("[^\\d]", ""));
+        map = create(size);
+        if (map.size() != size) {
+            throw new IllegalStateException(String.format("Map %s has size %d instead of %d", map.getClass().getName(), map.size(), size));
+        }
+    }
+
+    /**
+     * @param size Count of entries
+     * @return Map with keys and values {@code 0..size-1}
+     */
+    protected abstract Map<?, Integer> create(int size);
+
+    /**
+     * Extended for-each over {@link Map#entrySet()}
+     *
+     * @param hole Black hole
+     */
+    public void entrySet(final Blackhole hole) {
+        for (Map.Entry<?, Integer> entry : map.entrySet()) {
+            hole.consume(entry.getKey());
+            hole.consume(entry.getValue());
+        }
+    }
+
+    /**
+     * Extended for-each over {@link Map#keySet()} with {@link Map#get(Object)} for every key
+     *
+     * @param hole Black hole
+     */
+    public void keySetGet(final Blackhole hole) {
+        for (Object key : map.keySet()) {
+            hole.consume(key);
+            hole.consume(map.get(key));
+        }
+    }
+
+    /**
+     * Lambda for-each from Java 1.8: {@link Map#forEach(java.util.function.BiConsumer)}
+     *
+     * @param hole Black hole
+     */
+    public void forEach(final Blackhole hole) {
+        map.forEach((key, value) -> {
+            hole.consume(key);
+            hole.consume(value);
+        });
+    }
+
+    /**
+     * Loop over entries with iterator
+     *
+     * @param hole Black hole
+     */
+    @SuppressWarnings("WhileLoopReplaceableByForEach")
+    public void iterator(final Blackhole hole) {
+        Iterator<? extends Map.Entry<?, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<?, Integer> entry = iterator.next();
+            hole.consume(entry.getKey());
+            hole.consume(entry.getValue());
+        }
+    }
+
+    /**
+     * Stream over {@link Map#entrySet()}
+     *
+     * @param hole Black hole
+     */
+    public void stream(final Blackhole hole) {
+        map.entrySet().stream().forEach(entry -> {
+            hole.consume(entry.getKey());
+            hole.consume(entry.getValue());
+        });
+    }
+
+    protected void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "entrySet":
+                entrySet(hole);
+                break;
+            case "keySetGet":
+                keySetGet(hole);
+                break;
+            case "forEach":
+                forEach(hole);
+                break;
+            case "iterator":
+                iterator(hole);
+                break;
+            case "stream":
+                stream(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+}
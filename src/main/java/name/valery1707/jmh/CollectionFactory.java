@@ -0,0 +1,68 @@
+package name.valery1707.jmh;
+
+import name.valery1707.collection.CompactHashSet;
+
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Registry of collections filled with {@code 0..size-1}, keyed by name used in {@code @Param}.
+ */
+public final class CollectionFactory {
+    private static final Map<String, IntFunction<Collection<Integer>>> FACTORIES = new LinkedHashMap<>();
+
+    static {
+        register("java.util.HashSet", filled(HashSet::new));
+        register("java.util.TreeSet", filled(TreeSet::new));
+        register("java.util.ArrayList", filled(ArrayList::new));
+        register("java.util.LinkedList", filled(LinkedList::new));
+        register("java.util.ArrayDeque", filled(ArrayDeque::new));
+        register("java.util.PriorityQueue", filled(PriorityQueue::new));
+        register("Arrays.asList", size -> Arrays.asList(values(size)));
+        register("List.of", size -> List.of(values(size)));
+        register("Set.of", size -> Set.of(values(size)));
+        register("Collections.unmodifiableList", size -> Collections.unmodifiableList(filled(ArrayList::new).apply(size)));
+        register("Collections.unmodifiableSet", size -> Collections.unmodifiableSet(filled(HashSet::new).apply(size)));
+        register("CompactHashSet", filled(CompactHashSet::new));
+    }
+
+    private CollectionFactory() {
+    }
+
+    public static void register(String name, IntFunction<Collection<Integer>> factory) {
+        if (FACTORIES.putIfAbsent(name, factory) != null) {
+            throw new IllegalStateException("Factory already registered: " + name);
+        }
+    }
+
+    public static Collection<Integer> create(String name, int size) {
+        IntFunction<Collection<Integer>> factory = FACTORIES.get(name);
+        if (factory == null) {
+            throw new IllegalStateException("Unknown collection: " + name);
+        }
+        return factory.apply(size);
+    }
+
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(FACTORIES.keySet());
+    }
+
+    private static <C extends Collection<Integer>> IntFunction<C> filled(Supplier<C> supplier) {
+        return size -> {
+            C collection = supplier.get();
+            for (int i = 0; i < size; i++) {
+                collection.add(i);
+            }
+            return collection;
+        };
+    }
+
+    private static Integer[] values(int size) {
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+}
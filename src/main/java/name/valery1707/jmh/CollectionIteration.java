@@ -1,6 +1,7 @@
 package name.valery1707.jmh;
 
 import name.valery1707.Utils;
+import name.valery1707.profile.AllocationBudget;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
@@ -23,7 +24,14 @@ import java.util.regex.Pattern;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.joining;
 
+/**
+ * Allocation budgets are checked with {@link name.valery1707.profile.AllocationBudgetProfiler}:
+ * loops by index allocate nothing, other modes allocate at most one iterator or lambda per invocation.
+ */
 @SuppressWarnings("DefaultAnnotationParam")
+@AllocationBudget(value = 0.5, when = "mode=forWithoutCache")
+@AllocationBudget(value = 0.5, when = "mode=forWithCache")
+@AllocationBudget(value = 48, perInvocation = true)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
@@ -34,26 +42,28 @@ public class CollectionIteration {
     @Param({"forWithoutCache", "forWithCache", "forEachJava5", "forEachJava8", "iterator"})
     public String mode;
 
-    @Param({"java.util.HashSet", "java.util.TreeSet", "java.util.ArrayList", "java.util.LinkedList"})
+    /**
+     * Name of factory from {@link CollectionFactory}
+     */
+    @Param({
+            "java.util.HashSet", "java.util.TreeSet", "java.util.ArrayList", "java.util.LinkedList",
+            "java.util.ArrayDeque", "java.util.PriorityQueue", "Arrays.asList", "List.of", "Set.of",
+            "Collections.unmodifiableList", "Collections.unmodifiableSet", "CompactHashSet"
+    })
     public String clazz;
 
     private Collection<Integer> collection;
 
     @Setup
-    @SuppressWarnings("unchecked")
     public void setup(
             BenchmarkParams params
-    ) throws ClassNotFoundException, IllegalAccessException, InstantiationException {
+    ) {
         int size = Integer.parseInt(params
                 .getBenchmark()
                 .substring(CollectionIteration.class.getName().length())
                 .replaceAll("[^\\d]", "")
         );
-        Class<Collection<Integer>> clazz = (Class<Collection<Integer>>) Class.forName(this.clazz);
-        collection = clazz.newInstance();
-        for (int i = 0; i < size; i++) {
-            collection.add(i);
-        }
+        collection = CollectionFactory.create(clazz, size);
     }
 
     /**
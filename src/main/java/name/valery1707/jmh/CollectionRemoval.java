@@ -0,0 +1,194 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toCollection;
+
+/**
+ * Bulk removal of part of elements from collection.
+ * Collection is recreated before every invocation, so every invocation removes from full collection.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionRemoval {
+    @Param({"removeIf", "iteratorRemove", "streamRebuild", "retainAll"})
+    public String mode;
+
+    @Param({"java.util.ArrayList", "java.util.LinkedList", "java.util.HashSet", "java.util.TreeSet", "java.util.ArrayDeque"})
+    public String clazz;
+
+    /**
+     * Part of elements to remove
+     */
+    @Param({"0.01", "0.1", "0.5", "0.9"})
+    public double ratio;
+
+    private boolean[] drop;
+    private Set<Integer> retain;
+    private List<Integer> source;
+    private Function<Collection<Integer>, Collection<Integer>> copy;
+    private Collection<Integer> collection;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(CollectionRemoval.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        copy = copy(clazz);
+        Random random = new Random(size);
+        drop = new boolean[size];
+        retain = new HashSet<>();
+        source = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            drop[i] = random.nextDouble() < ratio;
+            if (!drop[i]) {
+                retain.add(i);
+            }
+            source.add(i);
+        }
+    }
+
+    private static Function<Collection<Integer>, Collection<Integer>> copy(String clazz) {
+        switch (clazz) {
+            case "java.util.ArrayList":
+                return ArrayList::new;
+            case "java.util.LinkedList":
+                return LinkedList::new;
+            case "java.util.HashSet":
+                return HashSet::new;
+            case "java.util.TreeSet":
+                return TreeSet::new;
+            case "java.util.ArrayDeque":
+                return ArrayDeque::new;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        collection = copy.apply(source);
+    }
+
+    /**
+     * {@link Collection#removeIf(java.util.function.Predicate)} from Java 1.8
+     *
+     * @param hole Black hole
+     */
+    public void removeIf(final Blackhole hole) {
+        hole.consume(collection.removeIf(i -> drop[i]));
+    }
+
+    /**
+     * Loop over collection with {@link Iterator#remove()}
+     *
+     * @param hole Black hole
+     */
+    public void iteratorRemove(final Blackhole hole) {
+        Iterator<Integer> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            if (drop[iterator.next()]) {
+                iterator.remove();
+            }
+        }
+        hole.consume(collection);
+    }
+
+    /**
+     * Filter with stream into new collection of same type
+     *
+     * @param hole Black hole
+     */
+    public void streamRebuild(final Blackhole hole) {
+        Supplier<Collection<Integer>> factory = () -> copy.apply(Collections.emptyList());
+        hole.consume(collection.stream().filter(i -> !drop[i]).collect(toCollection(factory)));
+    }
+
+    /**
+     * {@link Collection#retainAll(Collection)} with {@link HashSet} of elements to keep
+     *
+     * @param hole Black hole
+     */
+    public void retainAll(final Blackhole hole) {
+        hole.consume(collection.retainAll(retain));
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "removeIf":
+                removeIf(hole);
+                break;
+            case "iteratorRemove":
+                iteratorRemove(hole);
+                break;
+            case "streamRebuild":
+                streamRebuild(hole);
+                break;
+            case "retainAll":
+                retainAll(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    /**
+     * Sizes are limited to 100_000: {@link Iterator#remove()} over {@link ArrayList} is quadratic
+     * and single invocation on million elements takes minutes.
+     * <p>
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '.*CollectionRemoval.*'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CollectionRemoval.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
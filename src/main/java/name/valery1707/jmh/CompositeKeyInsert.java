@@ -0,0 +1,138 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insertion of keys built from two parts: concatenated {@link String} vs composite key object vs two-level map.
+ * <p>
+ * Every invocation builds new map from {@code size} distinct keys, same as filled map of {@link CompositeKeyLookup}.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class CompositeKeyInsert {
+    @Param({"string", "composite", "nested"})
+    public String mode;
+
+    private String[] lhs;
+    private String[] rhs;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(CompositeKeyInsert.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        lhs = new String[size];
+        rhs = new String[size];
+        for (int i = 0; i < size; i++) {
+            //Strings are recreated to avoid identity shortcut inside String.equals
+            lhs[i] = new String(CompositeKeyLookup.group(i));
+            rhs[i] = new String(CompositeKeyLookup.item(i));
+        }
+    }
+
+    private void stringPut(final Blackhole hole) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < lhs.length; i++) {
+            map.put(lhs[i] + "_" + rhs[i], i);
+        }
+        hole.consume(map);
+    }
+
+    private void compositePut(final Blackhole hole) {
+        Map<CompositeKeyLookup.Key2, Integer> map = new HashMap<>();
+        for (int i = 0; i < lhs.length; i++) {
+            map.put(new CompositeKeyLookup.Key2(lhs[i], rhs[i]), i);
+        }
+        hole.consume(map);
+    }
+
+    private void nestedPut(final Blackhole hole) {
+        Map<String, Map<String, Integer>> map = new HashMap<>();
+        for (int i = 0; i < lhs.length; i++) {
+            map.computeIfAbsent(lhs[i], __ -> new HashMap<>()).put(rhs[i], i);
+        }
+        hole.consume(map);
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "string":
+                stringPut(hole);
+                break;
+            case "composite":
+                compositePut(hole);
+                break;
+            case "nested":
+                nestedPut(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompositeKeyInsert.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,198 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup by keys built from two parts: concatenated {@link String} vs composite key object vs two-level map.
+ * <p>
+ * Insertion of same keys is measured by {@link CompositeKeyInsert}, which does not depend on {@link #hit}.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class CompositeKeyLookup {
+    /**
+     * Count of distinct first parts of key
+     */
+    private static final int GROUPS = 1024;
+
+    @Param({"string", "composite", "nested"})
+    public String mode;
+
+    /**
+     * Part of lookups which found existing key
+     */
+    @Param({"1.0", "0.9", "0.5", "0.0"})
+    public double hit;
+
+    private String[] lhs;
+    private String[] rhs;
+
+    private Map<String, Integer> stringMap;
+    private Map<Key2, Integer> compositeMap;
+    private Map<String, Map<String, Integer>> nestedMap;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(CompositeKeyLookup.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        stringMap = new HashMap<>();
+        compositeMap = new HashMap<>();
+        nestedMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String group = group(i);
+            String item = item(i);
+            stringMap.put(group + "_" + item, i);
+            compositeMap.put(new Key2(group, item), i);
+            nestedMap.computeIfAbsent(group, __ -> new HashMap<>()).put(item, i);
+        }
+
+        Random random = new Random(size);
+        lhs = new String[size];
+        rhs = new String[size];
+        for (int i = 0; i < size; i++) {
+            //Strings are recreated to avoid identity shortcut inside String.equals
+            int id = random.nextDouble() < hit ? random.nextInt(size) : size + i;
+            lhs[i] = new String(group(id));
+            rhs[i] = new String(item(id));
+        }
+    }
+
+    static String group(int id) {
+        return "group-" + (id % GROUPS);
+    }
+
+    static String item(int id) {
+        return "item-" + id;
+    }
+
+    private void stringGet(final Blackhole hole) {
+        for (int i = 0; i < lhs.length; i++) {
+            hole.consume(stringMap.get(lhs[i] + "_" + rhs[i]));
+        }
+    }
+
+    private void compositeGet(final Blackhole hole) {
+        for (int i = 0; i < lhs.length; i++) {
+            hole.consume(compositeMap.get(new Key2(lhs[i], rhs[i])));
+        }
+    }
+
+    private void nestedGet(final Blackhole hole) {
+        for (int i = 0; i < lhs.length; i++) {
+            Map<String, Integer> inner = nestedMap.get(lhs[i]);
+            hole.consume(inner != null ? inner.get(rhs[i]) : null);
+        }
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "string":
+                stringGet(hole);
+                break;
+            case "composite":
+                compositeGet(hole);
+                break;
+            case "nested":
+                nestedGet(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompositeKeyLookup.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Immutable key from two parts with hash calculated once in constructor
+     */
+    public static final class Key2 {
+        private final String lhs;
+        private final String rhs;
+        private final int hash;
+
+        public Key2(String lhs, String rhs) {
+            this.lhs = lhs;
+            this.rhs = rhs;
+            this.hash = 31 * lhs.hashCode() + rhs.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key2)) return false;
+            Key2 that = (Key2) o;
+            return hash == that.hash && lhs.equals(that.lhs) && rhs.equals(that.rhs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
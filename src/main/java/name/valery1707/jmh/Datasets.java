@@ -0,0 +1,134 @@
+package name.valery1707.jmh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of inputs of benchmarks: same seed and parameters always produce same input,
+ * so results are reproducible between runs and machines, and distributions can be tuned to resemble production data.
+ * <p>
+ * Knobs are exposed by benchmarks as {@code @Param} with single default value, for example:
+ * $ java -jar target/benchmarks.jar 'NewLineReplace' -p seed=7 -p lines=lognormal:0.5 -p unicode=0.1
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Datasets {
+    /**
+     * Default seed for {@code @Param}
+     */
+    public static final String SEED = "42";
+
+    /**
+     * Default sigma of {@code lognormal} distribution of lengths
+     */
+    public static final double SIGMA = 1.0;
+
+    /**
+     * Characters outside of Latin-1 from Basic Multilingual Plane: Cyrillic, Greek, CJK and punctuation
+     */
+    private static final String UNICODE = "абвгдеёжзийклмнопрстуфхцчшщъыьэюяАБВГДЕЖЗИЙКЛМНОПРСТУФХЦЧШЩЭЮЯαβγδεζηθικλμνξπρστφχψωΔΣΩ中文字符测试数据日本語한국어€—…“”";
+
+    private final SplittableRandom random;
+    private final Map<String, double[]> zipf = new HashMap<>();
+
+    public Datasets(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @param bound Upper bound (exclusive)
+     * @return Uniformly distributed value in {@code [0, bound)}
+     */
+    public int uniform(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Rank from Zipf distribution: probability of rank {@code k} is proportional to {@code 1 / (k + 1)^skew}.
+     *
+     * @param bound Count of ranks
+     * @param skew  Exponent, {@code 0} is uniform distribution, {@code 1} is classical Zipf's law
+     * @return Rank in {@code [0, bound)}, small ranks are the most frequent
+     */
+    public int zipf(int bound, double skew) {
+        if (skew == 0) {
+            return uniform(bound);
+        }
+        double[] cdf = zipf.computeIfAbsent(bound + ":" + skew, key -> {
+            double[] sums = new double[bound];
+            double sum = 0;
+            for (int k = 0; k < bound; k++) {
+                sum += 1 / Math.pow(k + 1, skew);
+                sums[k] = sum;
+            }
+            for (int k = 0; k < bound; k++) {
+                sums[k] /= sum;
+            }
+            return sums;
+        });
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(rank < 0 ? -rank - 1 : rank, bound - 1);
+    }
+
+    /**
+     * Seeded shuffle of identifiers, for example to map popular ranks from {@link #zipf(int, double)} to random identifiers
+     *
+     * @param size Count of identifiers
+     * @return Permutation of {@code [0, size)}
+     */
+    public int[] permutation(int size) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    /**
+     * @return Value from standard normal distribution (Box-Muller transform)
+     */
+    public double gaussian() {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * @param distribution {@code fixed} or {@code lognormal[:sigma]}, default sigma is {@value #SIGMA}
+     * @param median       Median of lengths
+     * @return Non-negative length
+     */
+    public int length(String distribution, double median) {
+        if ("fixed".equals(distribution)) {
+            return (int) Math.round(median);
+        }
+        if (distribution.equals("lognormal") || distribution.startsWith("lognormal:")) {
+            double sigma = distribution.length() > "lognormal:".length()
+                    ? Double.parseDouble(distribution.substring("lognormal:".length()))
+                    : SIGMA;
+            return (int) Math.round(median * Math.exp(sigma * gaussian()));
+        }
+        throw new IllegalArgumentException("Unknown distribution of lengths: " + distribution);
+    }
+
+    /**
+     * @param length   Length of text
+     * @param alphabet Characters of text
+     * @param unicode  Share of characters outside of Latin-1 (which makes string UTF-16 inside)
+     * @return Text
+     */
+    public String text(int length, char[] alphabet, double unicode) {
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = unicode > 0 && random.nextDouble() < unicode
+                    ? UNICODE.charAt(random.nextInt(UNICODE.length()))
+                    : alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(text);
+    }
+}
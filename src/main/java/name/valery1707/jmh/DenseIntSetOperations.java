@@ -0,0 +1,252 @@
+package name.valery1707.jmh;
+
+import name.valery1707.collection.RoaringIntSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets of int ids: {@link HashSet} vs {@link BitSet} vs {@link RoaringIntSet}.
+ * <p>
+ * Every set holds {@code size} ids, each id from {@code 0} is taken with probability {@link #density},
+ * so ids are spread over {@code size / density} values.
+ * Second set for {@code union} and {@code intersection} is generated same way with other seed.
+ * Ids and queries are cached by {@link Fixtures}: sparse sets draw {@code size / density} random values.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class DenseIntSetOperations {
+    @Param({"iterate", "contains", "union", "intersection"})
+    public String mode;
+
+    @Param({"java.util.HashSet", "java.util.BitSet", "RoaringIntSet"})
+    public String clazz;
+
+    @Param({"1.0", "0.5", "0.1", "0.01"})
+    public double density;
+
+    private Set<Integer> hashL;
+    private Set<Integer> hashR;
+    private BitSet bitsL;
+    private BitSet bitsR;
+    private RoaringIntSet roaringL;
+    private RoaringIntSet roaringR;
+    private int[] queries;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(DenseIntSetOperations.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        String key = "DenseIntSetOperations-v1-size=" + size + "-density=" + density;
+        int[] idsL = Fixtures.ints(key + "-ids=L", () -> ids(new Random(size), size));
+        int[] idsR = Fixtures.ints(key + "-ids=R", () -> ids(new Random(-size), size));
+        switch (clazz) {
+            case "java.util.HashSet":
+                hashL = hashSet(idsL);
+                hashR = hashSet(idsR);
+                break;
+            case "java.util.BitSet":
+                bitsL = bitSet(idsL);
+                bitsR = bitSet(idsR);
+                break;
+            case "RoaringIntSet":
+                roaringL = roaringSet(idsL);
+                roaringR = roaringSet(idsR);
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+        queries = Fixtures.ints(key + "-queries", () -> new Random(size + 1).ints(size, 0, (int) (size / density) + 1).toArray());
+    }
+
+    private int[] ids(Random random, int size) {
+        int[] ids = new int[size];
+        for (int id = 0, i = 0; i < size; id++) {
+            if (random.nextDouble() < density) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private static Set<Integer> hashSet(int[] ids) {
+        Set<Integer> set = new HashSet<>();
+        for (int id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private static BitSet bitSet(int[] ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+
+    private static RoaringIntSet roaringSet(int[] ids) {
+        RoaringIntSet set = new RoaringIntSet();
+        for (int id : ids) {
+            set.add(id);
+        }
+        return set.runOptimize();
+    }
+
+    private void iterate(final Blackhole hole) {
+        switch (clazz) {
+            case "java.util.HashSet":
+                for (Integer id : hashL) {
+                    hole.consume(id);
+                }
+                break;
+            case "java.util.BitSet":
+                for (int id = bitsL.nextSetBit(0); id >= 0; id = bitsL.nextSetBit(id + 1)) {
+                    hole.consume(id);
+                }
+                break;
+            case "RoaringIntSet":
+                roaringL.forEach((int id) -> hole.consume(id));
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    private void contains(final Blackhole hole) {
+        switch (clazz) {
+            case "java.util.HashSet":
+                for (int query : queries) {
+                    hole.consume(hashL.contains(query));
+                }
+                break;
+            case "java.util.BitSet":
+                for (int query : queries) {
+                    hole.consume(bitsL.get(query));
+                }
+                break;
+            case "RoaringIntSet":
+                for (int query : queries) {
+                    hole.consume(roaringL.contains(query));
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    private void union(final Blackhole hole) {
+        switch (clazz) {
+            case "java.util.HashSet":
+                Set<Integer> hash = new HashSet<>(hashL);
+                hash.addAll(hashR);
+                hole.consume(hash);
+                break;
+            case "java.util.BitSet":
+                BitSet bits = (BitSet) bitsL.clone();
+                bits.or(bitsR);
+                hole.consume(bits);
+                break;
+            case "RoaringIntSet":
+                hole.consume(RoaringIntSet.or(roaringL, roaringR));
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    private void intersection(final Blackhole hole) {
+        switch (clazz) {
+            case "java.util.HashSet":
+                Set<Integer> hash = new HashSet<>(hashL);
+                hash.retainAll(hashR);
+                hole.consume(hash);
+                break;
+            case "java.util.BitSet":
+                BitSet bits = (BitSet) bitsL.clone();
+                bits.and(bitsR);
+                hole.consume(bits);
+                break;
+            case "RoaringIntSet":
+                hole.consume(RoaringIntSet.and(roaringL, roaringR));
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "iterate":
+                iterate(hole);
+                break;
+            case "contains":
+                contains(hole);
+                break;
+            case "union":
+                union(hole);
+                break;
+            case "intersection":
+                intersection(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DenseIntSetOperations.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,72 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EnumMap} can not hold more entries than constants in {@link Character.UnicodeScript}, so sizes are limited to 100.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumMapIteration extends AbstractMapIteration {
+    private static final Character.UnicodeScript[] KEYS = Character.UnicodeScript.values();
+
+    @Override
+    protected Map<?, Integer> create(int size) {
+        EnumMap<Character.UnicodeScript, Integer> map = new EnumMap<>(Character.UnicodeScript.class);
+        for (int i = 0; i < size; i++) {
+            map.put(KEYS[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    /**
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '\.EnumMapIteration\.'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include("\\." + EnumMapIteration.class.getSimpleName() + "\\.")
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -1,5 +1,6 @@
 package name.valery1707.jmh;
 
+import name.valery1707.regex.PatternCache;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 import org.openjdk.jmh.runner.Runner;
@@ -26,7 +27,7 @@ import static java.util.stream.Collectors.toUnmodifiableMap;
 @Fork(1)
 @State(Scope.Thread)
 public class FillInVariables {
-    @Param({"inplace", "manual", "java9"})
+    @Param({"inplace", "inplaceCached", "manual", "java9"})
     public String mode;
 
     /**
@@ -65,6 +66,21 @@ public class FillInVariables {
         return text;
     }
 
+    private String inplaceCached(String text, Function<String, String> resolver) {
+        while (true) {
+            Matcher matcher = PatternCache.compile("\\{.*?}").matcher(text);
+            if (!matcher.find()) break;
+            String varName = PatternCache.compile("[{}]").matcher(matcher.group(0)).replaceAll("");
+            String variable = resolver.apply(varName);
+            if (Objects.nonNull(variable)) {
+                text = matcher.replaceFirst(variable);
+            } else {
+                text = matcher.replaceFirst("...");
+            }
+        }
+        return text;
+    }
+
     private static final Pattern VARIABLE_NAME = Pattern.compile("\\{(.*?)}");
 
     private String manual(String text, Function<String, String> resolver) {
@@ -116,6 +132,9 @@ public class FillInVariables {
             case "inplace":
                 hole.consume(inplace(source, variables::get));
                 break;
+            case "inplaceCached":
+                hole.consume(inplaceCached(source, variables::get));
+                break;
             case "manual":
                 hole.consume(manual(source, variables::get));
                 break;
@@ -0,0 +1,91 @@
+package name.valery1707.jmh;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Datasets of benchmarks, which are generated once and are persisted as binary files in {@code fixtures.dir}
+ * (default is {@code target/fixtures}), so next trials, forks and runs only map file into memory instead of generation.
+ * <p>
+ * Worth only for large datasets (millions of elements) with expensive generation,
+ * small inputs are generated faster than file is opened and mapped.
+ * <p>
+ * Key must describe content completely: name of benchmark, version of generator and all parameters of generation.
+ * File is written into temporary file and moved atomically, so concurrent forks never see partial content.
+ * Fixtures are removed by {@code mvn clean} or by removing of directory.
+ */
+public final class Fixtures {
+    private static final Path DIR = Paths.get(System.getProperty("fixtures.dir", "target/fixtures"));
+
+    private Fixtures() {
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Generator<T> {
+        T generate() throws IOException;
+    }
+
+    /**
+     * @param key    Complete description of content
+     * @param writer Generator of content, called only when fixture does not exist yet
+     * @return Read-only content mapped into memory
+     */
+    public static ByteBuffer bytes(String key, Writer writer) {
+        Path file = DIR.resolve(key.replaceAll("[^\\w.=-]", "_") + ".bin");
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(DIR);
+                Path temp = Files.createTempFile(DIR, "fixture", ".tmp");
+                try {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                        writer.write(out);
+                    }
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail to load fixture: " + key, e);
+        }
+    }
+
+    /**
+     * @param key       Complete description of content
+     * @param generator Generator of content, called only when fixture does not exist yet
+     * @return Array copied from mapped file with single bulk copy
+     */
+    public static int[] ints(String key, Generator<int[]> generator) {
+        IntBuffer buffer = bytes(key, out -> {
+            int[] values = generator.generate();
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+            for (int offset = 0; offset < values.length; offset += chunk.capacity() / Integer.BYTES) {
+                int count = Math.min(chunk.capacity() / Integer.BYTES, values.length - offset);
+                chunk.clear();
+                chunk.asIntBuffer().put(values, offset, count);
+                out.write(chunk.array(), 0, count * Integer.BYTES);
+            }
+        }).asIntBuffer();
+        int[] values = new int[buffer.remaining()];
+        buffer.get(values);
+        return values;
+    }
+}
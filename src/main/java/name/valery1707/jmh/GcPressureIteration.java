@@ -0,0 +1,135 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Iteration over collection while other threads of same group allocate garbage with fixed rate.
+ * <p>
+ * Latency of one pass is reported by secondary result {@code pressure:iterate} with percentiles
+ * {@code p0.50}, {@code p0.99} and {@code p0.999}; {@code pressure:allocate} is only pacing of allocators.
+ * <p>
+ * Allocators share rate from {@link Allocator#pressure} and keep every chunk reachable for its lifetime in milliseconds,
+ * so with long lifetime chunks survive young collections and are promoted.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Group)
+public class GcPressureIteration {
+    private static final int SIZE = 10_000;
+    private static final int ALLOCATORS = 2;
+    private static final int CHUNK = 1024;
+    private static final long MB = 1024 * 1024;
+
+    @Param({"java.util.ArrayList", "java.util.LinkedList", "java.util.ArrayDeque", "java.util.HashSet", "java.util.TreeSet"})
+    public String clazz;
+
+    private Collection<Integer> collection;
+
+    @Setup
+    public void setup() {
+        collection = CollectionFactory.create(clazz, SIZE);
+    }
+
+    @State(Scope.Thread)
+    public static class Allocator {
+        /**
+         * {@code rate:lifetime} - total allocation rate of all allocators in MB/s and time while allocated chunk stays reachable in ms.
+         * Lifetime has no effect without allocation, so rate {@code 0} has single value.
+         */
+        @Param({"0:0", "100:0", "100:10", "100:100", "500:0", "500:10", "500:100"})
+        public String pressure;
+
+        private int rate;
+        private int lifetime;
+        private long interval;
+        private long next;
+        private byte[][] retained;
+        private int position;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            int split = pressure.indexOf(':');
+            rate = Integer.parseInt(pressure.substring(0, split));
+            lifetime = Integer.parseInt(pressure.substring(split + 1));
+            if (rate == 0) {
+                return;
+            }
+            long threadRate = rate * MB / ALLOCATORS;
+            interval = TimeUnit.SECONDS.toNanos(1) * CHUNK / threadRate;
+            retained = new byte[(int) Math.max(1, threadRate * lifetime / 1000 / CHUNK)][];
+            position = 0;
+            next = System.nanoTime();
+        }
+
+        private void allocate(final Control control, final Blackhole hole) {
+            if (rate == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                return;
+            }
+            byte[] chunk = new byte[CHUNK];
+            if (lifetime > 0) {
+                retained[position] = chunk;
+                position = (position + 1) % retained.length;
+            } else {
+                hole.consume(chunk);
+            }
+            next += interval;
+            while (System.nanoTime() < next && !control.stopMeasurement) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("pressure")
+    @GroupThreads(1)
+    @OperationsPerInvocation(1)
+    public void iterate(final Blackhole hole) {
+        for (Integer item : collection) {
+            hole.consume(item);
+        }
+    }
+
+    @Benchmark
+    @Group("pressure")
+    @GroupThreads(ALLOCATORS)
+    @OperationsPerInvocation(1)
+    public void allocate(final Allocator allocator, final Control control, final Blackhole hole) {
+        allocator.allocate(control, hole);
+    }
+
+    /**
+     * Latency percentiles are reported by {@link Mode#SampleTime} for every group member.
+     * <p>
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '.*GcPressureIteration.*'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GcPressureIteration.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
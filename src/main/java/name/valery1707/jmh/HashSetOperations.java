@@ -0,0 +1,174 @@
+package name.valery1707.jmh;
+
+import name.valery1707.collection.CompactHashSet;
+import name.valery1707.profile.FootprintProfiler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hash sets: {@link HashSet} vs {@link LinkedHashSet} vs {@link CompactHashSet}.
+ * <p>
+ * Besides time {@link FootprintProfiler} reports {@value FootprintProfiler#LABEL}:
+ * retained heap of set structure per element, without elements itself.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar '.*HashSetOperations.*' -prof name.valery1707.profile.FootprintProfiler
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class HashSetOperations {
+    @Param({"iterate", "add", "contains"})
+    public String mode;
+
+    @Param({"java.util.HashSet", "java.util.LinkedHashSet", "CompactHashSet"})
+    public String clazz;
+
+    private Supplier<Set<Integer>> factory;
+    private Integer[] values;
+    private Integer[] queries;
+    private Set<Integer> set;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(HashSetOperations.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        switch (clazz) {
+            case "java.util.HashSet":
+                factory = HashSet::new;
+                break;
+            case "java.util.LinkedHashSet":
+                factory = LinkedHashSet::new;
+                break;
+            case "CompactHashSet":
+                factory = CompactHashSet::new;
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+        Random random = new Random(size);
+        values = new Integer[size];
+        queries = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+            queries[i] = random.nextInt(size * 2);
+        }
+        set = fill(factory.get(), values);
+        FootprintProfiler.register(() -> fill(factory.get(), values), size);
+    }
+
+    private static Set<Integer> fill(Set<Integer> set, Integer[] values) {
+        for (Integer value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private void iterate(final Blackhole hole) {
+        for (Integer value : set) {
+            hole.consume(value);
+        }
+    }
+
+    private void add(final Blackhole hole) {
+        hole.consume(fill(factory.get(), values));
+    }
+
+    private void contains(final Blackhole hole) {
+        for (Integer query : queries) {
+            hole.consume(set.contains(query));
+        }
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "iterate":
+                iterate(hole);
+                break;
+            case "add":
+                add(hole);
+                break;
+            case "contains":
+                contains(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(HashSetOperations.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(FootprintProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,124 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class MapIteration extends AbstractMapIteration {
+    /**
+     * Maps created by default constructor, see {@link MapSparseIteration} for load factor and capacity
+     * and {@link EnumMapIteration} for {@link EnumMap}
+     */
+    @Param({"java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap", "java.util.concurrent.ConcurrentHashMap", "java.util.IdentityHashMap", "Map.of"})
+    public String clazz;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected Map<?, Integer> create(int size) {
+        Map<Object, Integer> map;
+        switch (clazz) {
+            case "java.util.HashMap":
+                map = new HashMap<>();
+                break;
+            case "java.util.LinkedHashMap":
+                map = new LinkedHashMap<>();
+                break;
+            case "java.util.TreeMap":
+                map = new TreeMap<>();
+                break;
+            case "java.util.concurrent.ConcurrentHashMap":
+                map = new ConcurrentHashMap<>();
+                break;
+            case "java.util.IdentityHashMap":
+                map = new IdentityHashMap<>();
+                break;
+            case "Map.of":
+                Map.Entry[] entries = new Map.Entry[size];
+                for (int i = 0; i < size; i++) {
+                    entries[i] = Map.entry(i, i);
+                }
+                return Map.ofEntries(entries);
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    /**
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '\.MapIteration\.'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include("\\." + MapIteration.class.getSimpleName() + "\\.")
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,123 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration over sparse tables of hash maps: initial capacity and load factor are crossed only for maps which use both.
+ * Default constructor is measured by {@link MapIteration}, {@link java.util.IdentityHashMap} has no load factor.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class MapSparseIteration extends AbstractMapIteration {
+    @Param({"java.util.HashMap", "java.util.LinkedHashMap", "java.util.concurrent.ConcurrentHashMap"})
+    public String clazz;
+
+    @Param({"0.75", "0.5", "0.25"})
+    public float loadFactor;
+
+    /**
+     * Initial capacity as multiplier of size
+     */
+    @Param({"1", "8"})
+    public int capacityFactor;
+
+    @Override
+    protected Map<?, Integer> create(int size) {
+        int capacity = size * capacityFactor;
+        Map<Object, Integer> map;
+        switch (clazz) {
+            case "java.util.HashMap":
+                map = new HashMap<>(capacity, loadFactor);
+                break;
+            case "java.util.LinkedHashMap":
+                map = new LinkedHashMap<>(capacity, loadFactor);
+                break;
+            case "java.util.concurrent.ConcurrentHashMap":
+                map = new ConcurrentHashMap<>(capacity, loadFactor);
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    /**
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '\.MapSparseIteration\.'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include("\\." + MapSparseIteration.class.getSimpleName() + "\\.")
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -1,5 +1,7 @@
 package name.valery1707.jmh;
 
+import name.valery1707.profile.AllocationBudget;
+import name.valery1707.regex.PatternCache;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -19,14 +21,22 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
 
+/**
+ * Allocation of {@code function2} is fixed for length of Latin-1 source and is checked with {@link name.valery1707.profile.AllocationBudgetProfiler}.
+ * Every method replaces source once, so budgets are per invocation.
+ */
 @SuppressWarnings("DefaultAnnotationParam")
+@AllocationBudget(value = 800, when = {"mode=function2", "length=8", "unicode=0"}, perInvocation = true)
+@AllocationBudget(value = 800, when = {"mode=function2", "length=10", "unicode=0"}, perInvocation = true)
+@AllocationBudget(value = 1_000, when = {"mode=function2", "length=12", "unicode=0"}, perInvocation = true)
+@AllocationBudget(value = 1_700, when = {"mode=function2", "length=24", "unicode=0"}, perInvocation = true)
+@AllocationBudget(value = 3_000, when = {"mode=function2", "length=48", "unicode=0"}, perInvocation = true)
+@AllocationBudget(value = 58_000, when = {"mode=function2", "length=1024", "unicode=0"}, perInvocation = true)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 @Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
@@ -37,12 +47,21 @@ public class MatcherReplace {
     private static final char[] CHARS = new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '0', '*'};
     private static final Pattern PATTERN = Pattern.compile("([\\d*]{4})");
 
-    @Param({"string", "function1", "function2"})
+    @Param({"string", "function1", "function2", "cached"})
     public String mode;
 
     @Param({"8", "10", "12", "24", "48", "1024"})
     public int length;
 
+    @Param(Datasets.SEED)
+    public long seed;
+
+    /**
+     * Share of characters outside of Latin-1, see {@link Datasets#text(int, char[], double)}
+     */
+    @Param("0")
+    public double unicode;
+
     private String source;
 
     private String string(String source) {
@@ -59,14 +78,13 @@ public class MatcherReplace {
         return PATTERN.matcher(source).replaceAll(REPLACE).trim();
     }
 
+    private String cached(String source) {
+        return PatternCache.compile(PATTERN.pattern()).matcher(source).replaceAll("$1 ").trim();
+    }
+
     @Setup
     public void setup() {
-        source = IntStream
-                .generate(() -> ThreadLocalRandom.current().nextInt(CHARS.length))
-                .limit(length)
-                .mapToObj(i -> CHARS[i])
-                .reduce(new StringBuilder(), StringBuilder::append, StringBuilder::append)
-                .toString();
+        source = new Datasets(seed).text(length, CHARS, unicode);
     }
 
     private void benchmark(final Blackhole hole) {
@@ -80,6 +98,9 @@ public class MatcherReplace {
             case "function2":
                 hole.consume(function2(source));
                 break;
+            case "cached":
+                hole.consume(cached(source));
+                break;
             default:
                 throw new IllegalStateException("Unknown mode: " + mode);
         }
@@ -1,5 +1,6 @@
 package name.valery1707.jmh;
 
+import name.valery1707.regex.PatternCache;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -19,12 +20,8 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
-
-import static java.util.stream.Collectors.joining;
 
 @SuppressWarnings("DefaultAnnotationParam")
 @BenchmarkMode(Mode.AverageTime)
@@ -37,15 +34,33 @@ public class NewLineReplace {
     private static final char[] CHARS = new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '0', '*'};
     private static final Pattern PATTERN = Pattern.compile("(\r\n|\n)");
 
-    @Param({"regexp-raw", "regexp-compiled", "replace"})
+    @Param({"regexp-raw", "regexp-compiled", "regexp-cached", "replace"})
     public String mode;
 
     @Param({"10", "100", "1000"})
     public int length;
 
+    /**
+     * Median length of line as part of {@link #length}
+     */
     @Param({"1.0", "0.7", "0.5", "0.1"})
     public double percent;
 
+    @Param(Datasets.SEED)
+    public long seed;
+
+    /**
+     * Distribution of lengths of lines, see {@link Datasets#length(String, double)}
+     */
+    @Param("fixed")
+    public String lines;
+
+    /**
+     * Share of characters outside of Latin-1, see {@link Datasets#text(int, char[], double)}
+     */
+    @Param("0")
+    public double unicode;
+
     private String source;
 
     private String regexpRaw(String source) {
@@ -56,23 +71,33 @@ public class NewLineReplace {
         return PATTERN.matcher(source).replaceAll(" ");
     }
 
+    private String regexpCached(String source) {
+        return PatternCache.compile(PATTERN.pattern()).matcher(source).replaceAll(" ");
+    }
+
     private String replace(String source) {
         return source.replace("\r\n", " ").replace("\n", " ");
     }
 
     @Setup
     public void setup() {
-        source = IntStream
-                .generate(() -> ThreadLocalRandom.current().nextInt(CHARS.length))
-                .limit(length)
-                .mapToObj(i -> CHARS[i])
-                .reduce(new StringBuilder(), StringBuilder::append, StringBuilder::append)
-                .toString();
-        int partSize = (int) (length * percent);
-        source = IntStream
-                .rangeClosed(0, length / partSize)
-                .mapToObj(part -> source.substring(part * partSize, Math.min((part + 1) * partSize, length)))
-                .collect(joining("\r\n"));
+        source = generate();
+    }
+
+    private String generate() {
+        Datasets datasets = new Datasets(seed);
+        String chars = datasets.text(length, CHARS, unicode);
+        StringBuilder source = new StringBuilder(length * 3);
+        int offset = 0;
+        while (true) {
+            int line = Math.max(1, datasets.length(lines, length * percent));
+            source.append(chars, offset, Math.min(offset + line, length));
+            offset += line;
+            if (offset > length) {
+                return source.toString();
+            }
+            source.append("\r\n");
+        }
     }
 
     private void benchmark(final Blackhole hole) {
@@ -83,6 +108,9 @@ public class NewLineReplace {
             case "regexp-compiled":
                 hole.consume(regexpCompiled(source));
                 break;
+            case "regexp-cached":
+                hole.consume(regexpCached(source));
+                break;
             case "replace":
                 hole.consume(replace(source));
                 break;
@@ -0,0 +1,230 @@
+package name.valery1707.jmh;
+
+import name.valery1707.concurrent.StripedCounter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counting of matched elements by many threads iterating same shared collection into shared accumulator.
+ * <p>
+ * Method name holds count of threads, every thread passes whole collection per invocation.
+ * <ul>
+ * <li>{@code atomic} - {@link AtomicLong#incrementAndGet()} for every match</li>
+ * <li>{@code adder} - {@link LongAdder#increment()} for every match</li>
+ * <li>{@code striped} - {@link StripedCounter} with stripe per thread on own cache line</li>
+ * <li>{@code stripedUnpadded} - {@link StripedCounter} with adjacent stripes: false sharing</li>
+ * <li>{@code local} - local sum merged into {@link AtomicLong} once per pass</li>
+ * </ul>
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelAggregation {
+    private static final int SIZE = 10_000;
+    private static final int MAX_THREADS = 8;
+
+    @Param({"atomic", "adder", "striped", "stripedUnpadded", "local"})
+    public String mode;
+
+    @Param({"array", "list"})
+    public String type;
+
+    /**
+     * Part of matched elements
+     */
+    @Param({"1.0", "0.5", "0.1"})
+    public double match;
+
+    private int[] array;
+    private List<Integer> list;
+    private int threshold;
+
+    private AtomicLong atomic;
+    private LongAdder adder;
+    private StripedCounter striped;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SIZE);
+        array = new int[SIZE];
+        list = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            array[i] = random.nextInt(1000);
+            list.add(array[i]);
+        }
+        threshold = (int) (match * 1000);
+        atomic = new AtomicLong();
+        adder = new LongAdder();
+        striped = new StripedCounter(MAX_THREADS, !"stripedUnpadded".equals(mode));
+    }
+
+    private void arrayAtomic() {
+        for (int value : array) {
+            if (value < threshold) {
+                atomic.incrementAndGet();
+            }
+        }
+    }
+
+    private void listAtomic() {
+        for (Integer value : list) {
+            if (value < threshold) {
+                atomic.incrementAndGet();
+            }
+        }
+    }
+
+    private void arrayAdder() {
+        for (int value : array) {
+            if (value < threshold) {
+                adder.increment();
+            }
+        }
+    }
+
+    private void listAdder() {
+        for (Integer value : list) {
+            if (value < threshold) {
+                adder.increment();
+            }
+        }
+    }
+
+    private void arrayStriped(final int stripe) {
+        for (int value : array) {
+            if (value < threshold) {
+                striped.increment(stripe);
+            }
+        }
+    }
+
+    private void listStriped(final int stripe) {
+        for (Integer value : list) {
+            if (value < threshold) {
+                striped.increment(stripe);
+            }
+        }
+    }
+
+    private long arrayLocal() {
+        long sum = 0;
+        for (int value : array) {
+            if (value < threshold) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    private long listLocal() {
+        long sum = 0;
+        for (Integer value : list) {
+            if (value < threshold) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Mode and type are dispatched once per pass: every strategy has own loop, so loop body holds only update of accumulator
+     */
+    private void benchmark(final Blackhole hole, final ThreadParams thread) {
+        boolean isArray;
+        switch (type) {
+            case "array":
+                isArray = true;
+                break;
+            case "list":
+                isArray = false;
+                break;
+            default:
+                throw new IllegalStateException("Unknown type: " + type);
+        }
+        switch (mode) {
+            case "atomic":
+                if (isArray) {
+                    arrayAtomic();
+                } else {
+                    listAtomic();
+                }
+                break;
+            case "adder":
+                if (isArray) {
+                    arrayAdder();
+                } else {
+                    listAdder();
+                }
+                break;
+            case "striped":
+            case "stripedUnpadded":
+                if (isArray) {
+                    arrayStriped(thread.getThreadIndex());
+                } else {
+                    listStriped(thread.getThreadIndex());
+                }
+                break;
+            case "local":
+                hole.consume(atomic.addAndGet(isArray ? arrayLocal() : listLocal()));
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(SIZE)
+    public void threads_1(final Blackhole hole, final ThreadParams thread) {
+        benchmark(hole, thread);
+    }
+
+    @Benchmark
+    @Threads(2)
+    @OperationsPerInvocation(SIZE)
+    public void threads_2(final Blackhole hole, final ThreadParams thread) {
+        benchmark(hole, thread);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(SIZE)
+    public void threads_4(final Blackhole hole, final ThreadParams thread) {
+        benchmark(hole, thread);
+    }
+
+    @Benchmark
+    @Threads(MAX_THREADS)
+    @OperationsPerInvocation(SIZE)
+    public void threads_8(final Blackhole hole, final ThreadParams thread) {
+        benchmark(hole, thread);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelAggregation.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -25,8 +25,8 @@ import org.openjdk.jmh.runner.options.TimeValue;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -48,39 +48,58 @@ public class ParseJsonList {
     @Param({"8", "10", "12", "24", "48", "1024"})
     public int count;
 
+    @Param(Datasets.SEED)
+    public long seed;
+
+    /**
+     * Exponent of Zipf distribution of codes over {@code count * 1000} values, {@code 0} is uniform, see {@link Datasets#zipf(int, double)}.
+     * Codes are not unique: popular codes are repeated in source.
+     */
+    @Param("0")
+    public double skew;
+
+    /**
+     * Codes are drawn with duplicates, the last one wins
+     */
+    private static final BinaryOperator<DemoDo> LAST = (first, last) -> last;
+
     private ObjectMapper mapper;
 
     private String source;
 
     private Map<String, DemoDo> arrayToStream(String source) throws JsonProcessingException {
         return Stream.of(mapper.readValue(source, DemoDo[].class))
-                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity()));
+                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity(), LAST));
     }
 
     private Map<String, DemoDo> arrayToListToStream(String source) throws JsonProcessingException {
         return Arrays.asList(mapper.readValue(source, DemoDo[].class))
                 .stream()
-                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity()));
+                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity(), LAST));
     }
 
     private Map<String, DemoDo> listToStream(String source) throws JsonProcessingException {
         return mapper.readValue(source, new TypeReference<List<DemoDo>>() {})
                 .stream()
-                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity()));
+                .collect(Collectors.toUnmodifiableMap(DemoDo::getCode, Function.identity(), LAST));
     }
 
     @Setup
     public void setup() throws JsonProcessingException {
         mapper = new ObjectMapper();
+        source = generate();
+    }
 
+    private String generate() throws JsonProcessingException {
+        Datasets datasets = new Datasets(seed);
+        int[] codes = datasets.permutation(count * 1000);
         List<DemoDo> list = IntStream
-                .generate(() -> ThreadLocalRandom.current().nextInt(count * 1000))
-                .distinct()
+                .generate(() -> codes[datasets.zipf(codes.length, skew)])
                 .limit(count)
                 .mapToObj(String::valueOf)
                 .map(DemoDo::new)
                 .collect(toList());
-        source = mapper.writeValueAsString(list);
+        return mapper.writeValueAsString(list);
     }
 
     private void benchmark(final Blackhole hole) throws JsonProcessingException {
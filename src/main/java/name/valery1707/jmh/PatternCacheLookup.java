@@ -0,0 +1,137 @@
+package name.valery1707.jmh;
+
+import name.valery1707.regex.PatternCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup of compiled pattern by many threads from one shared cache.
+ * <p>
+ * Method name holds count of threads, every operation takes random pattern from {@link #patterns} distinct ones.
+ * With {@code patterns} less than {@link #CAPACITY} all lookups hit after warmup,
+ * with more patterns cache churns: misses compile and evict.
+ * <ul>
+ * <li>{@code cache} - {@link PatternCache}</li>
+ * <li>{@code synchronizedLru} - {@link LinkedHashMap} in access order under {@link Collections#synchronizedMap(Map)}</li>
+ * <li>{@code concurrentMap} - unbounded {@link ConcurrentHashMap#computeIfAbsent}, reference only: it never evicts</li>
+ * <li>{@code compile} - {@link Pattern#compile(String)} on every call</li>
+ * </ul>
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternCacheLookup {
+    private static final int CAPACITY = 256;
+    private static final int MAX_THREADS = 8;
+
+    @Param({"cache", "synchronizedLru", "concurrentMap", "compile"})
+    public String mode;
+
+    /**
+     * Count of distinct patterns
+     */
+    @Param({"64", "1024"})
+    public int patterns;
+
+    private String[] regexps;
+
+    private PatternCache cache;
+    private Map<String, Pattern> synchronizedLru;
+    private ConcurrentHashMap<String, Pattern> concurrentMap;
+
+    @Setup
+    public void setup() {
+        regexps = new String[patterns];
+        for (int i = 0; i < patterns; i++) {
+            regexps[i] = "(\\d+)-" + i + "-([a-z]+)";
+        }
+        cache = new PatternCache(CAPACITY);
+        synchronizedLru = Collections.synchronizedMap(new LinkedHashMap<String, Pattern>(CAPACITY * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                return size() > CAPACITY;
+            }
+        });
+        concurrentMap = new ConcurrentHashMap<>();
+    }
+
+    private Pattern synchronizedLru(String regex) {
+        Pattern pattern = synchronizedLru.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            synchronizedLru.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    private Pattern lookup(String regex) {
+        switch (mode) {
+            case "cache":
+                return cache.get(regex);
+            case "synchronizedLru":
+                return synchronizedLru(regex);
+            case "concurrentMap":
+                return concurrentMap.computeIfAbsent(regex, Pattern::compile);
+            case "compile":
+                return Pattern.compile(regex);
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    private void benchmark(final Blackhole hole) {
+        hole.consume(lookup(regexps[ThreadLocalRandom.current().nextInt(patterns)]));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void threads_2(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads_4(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @Threads(MAX_THREADS)
+    public void threads_8(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PatternCacheLookup.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,184 @@
+package name.valery1707.jmh;
+
+import name.valery1707.Utils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Same pipeline written as plain loop, {@link java.util.stream.Stream} and {@link Utils.Pipeline}.
+ * <ul>
+ * <li>{@code filterMap} - {@code filter(even).map(x * 3).collect(toList())}</li>
+ * <li>{@code flatMapLimit} - {@code flatMap(x, -x).limit(size).forEach(consume)}</li>
+ * </ul>
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineOverhead {
+    @Param({"loop", "stream", "pipeline"})
+    public String mode;
+
+    @Param({"filterMap", "flatMapLimit"})
+    public String shape;
+
+    private List<Integer> collection;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(PipelineOverhead.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        collection = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            collection.add(i);
+        }
+    }
+
+    private void loopFilterMap(final Blackhole hole) {
+        List<Integer> result = new ArrayList<>();
+        for (Integer i : collection) {
+            if (i % 2 == 0) {
+                result.add(i * 3);
+            }
+        }
+        hole.consume(result);
+    }
+
+    private void streamFilterMap(final Blackhole hole) {
+        hole.consume(collection.stream().filter(i -> i % 2 == 0).map(i -> i * 3).collect(Collectors.toList()));
+    }
+
+    private void pipelineFilterMap(final Blackhole hole) {
+        hole.consume(Utils.pipeline(collection).filter(i -> i % 2 == 0).map(i -> i * 3).collect(Collectors.toList()));
+    }
+
+    private void loopFlatMapLimit(final Blackhole hole) {
+        int limit = collection.size();
+        int passed = 0;
+        for (Integer i : collection) {
+            if (passed++ == limit) break;
+            hole.consume(i);
+            if (passed++ == limit) break;
+            hole.consume(-i);
+        }
+    }
+
+    @SuppressWarnings("Convert2MethodRef")
+    private void streamFlatMapLimit(final Blackhole hole) {
+        collection.stream().flatMap(i -> List.of(i, -i).stream()).limit(collection.size()).forEach(i -> hole.consume(i));
+    }
+
+    @SuppressWarnings("Convert2MethodRef")
+    private void pipelineFlatMapLimit(final Blackhole hole) {
+        Utils.pipeline(collection).flatMap(i -> List.of(i, -i)).limit(collection.size()).forEach(i -> hole.consume(i));
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (shape) {
+            case "filterMap":
+                switch (mode) {
+                    case "loop":
+                        loopFilterMap(hole);
+                        break;
+                    case "stream":
+                        streamFilterMap(hole);
+                        break;
+                    case "pipeline":
+                        pipelineFilterMap(hole);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown mode: " + mode);
+                }
+                break;
+            case "flatMapLimit":
+                switch (mode) {
+                    case "loop":
+                        loopFlatMapLimit(hole);
+                        break;
+                    case "stream":
+                        streamFlatMapLimit(hole);
+                        break;
+                    case "pipeline":
+                        pipelineFlatMapLimit(hole);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown mode: " + mode);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown shape: " + shape);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PipelineOverhead.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,273 @@
+package name.valery1707.jmh;
+
+import name.valery1707.concurrent.RingBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Handoff of batches between producer and consumer threads through bounded queue.
+ * <p>
+ * Group name is {@code <topology>_<batch>}: {@code spsc} has one producer, {@code mpsc} has three producers,
+ * both have one consumer. Every invocation of producer offers batch of elements and every invocation
+ * of consumer takes same count of elements, so scores of methods are per element.
+ * Primary score of group is sum of its methods, so every handed off element is counted twice there:
+ * rate of handoff is secondary result {@code <group>:<group>_consume}, {@code <group>:<group>_produce} is same rate
+ * plus elements which are still in queue at the end of iteration.
+ * Full or empty queue is waited by spinning until JMH stops measurement.
+ * <p>
+ * {@link ConcurrentLinkedQueue} is unbounded, so its producers are limited by shared counter of elements in queue.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Group)
+public class QueueHandoff {
+    private static final int CAPACITY = 1024;
+
+    @Param({"RingBuffer", "java.util.concurrent.ArrayBlockingQueue", "java.util.concurrent.LinkedBlockingQueue", "java.util.concurrent.ConcurrentLinkedQueue"})
+    public String clazz;
+
+    private int batch;
+    private Integer[] elements;
+
+    private RingBuffer<Integer> ring;
+    private BlockingQueue<Integer> blocking;
+    private Queue<Integer> concurrent;
+    private AtomicLong backlog;
+
+    /**
+     * Used only by single consumer
+     */
+    private List<Integer> drained;
+    private Consumer<Integer> sink;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        String benchmark = params.getBenchmark().substring(QueueHandoff.class.getName().length());
+        batch = Integer.parseInt(benchmark.replaceAll("[^\\d]", ""));
+        elements = new Integer[batch];
+        for (int i = 0; i < batch; i++) {
+            elements[i] = i;
+        }
+        drained = new ArrayList<>(batch);
+        switch (clazz) {
+            case "RingBuffer":
+                ring = benchmark.startsWith(".spsc") ? RingBuffer.spsc(CAPACITY) : RingBuffer.mpsc(CAPACITY);
+                break;
+            case "java.util.concurrent.ArrayBlockingQueue":
+                blocking = new ArrayBlockingQueue<>(CAPACITY);
+                break;
+            case "java.util.concurrent.LinkedBlockingQueue":
+                blocking = new LinkedBlockingQueue<>(CAPACITY);
+                break;
+            case "java.util.concurrent.ConcurrentLinkedQueue":
+                concurrent = new ConcurrentLinkedQueue<>();
+                backlog = new AtomicLong();
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+    }
+
+    private void produce(final Control control) {
+        if (ring != null) {
+            while (!ring.offer(elements, batch)) {
+                if (control.stopMeasurement) return;
+                Thread.onSpinWait();
+            }
+        } else if (blocking != null) {
+            for (Integer element : elements) {
+                while (!blocking.offer(element)) {
+                    if (control.stopMeasurement) return;
+                    Thread.onSpinWait();
+                }
+            }
+        } else {
+            while (backlog.addAndGet(batch) > CAPACITY) {
+                backlog.addAndGet(-batch);
+                if (control.stopMeasurement) return;
+                Thread.onSpinWait();
+            }
+            for (Integer element : elements) {
+                concurrent.offer(element);
+            }
+        }
+    }
+
+    private int drain(final Blackhole hole, final int limit) {
+        if (ring != null) {
+            if (sink == null) {
+                sink = hole::consume;
+            }
+            return ring.drain(sink, limit);
+        } else if (blocking != null) {
+            int count = blocking.drainTo(drained, limit);
+            for (int i = 0; i < count; i++) {
+                hole.consume(drained.get(i));
+            }
+            drained.clear();
+            return count;
+        } else {
+            int count = 0;
+            Integer element;
+            while (count < limit && (element = concurrent.poll()) != null) {
+                hole.consume(element);
+                count++;
+            }
+            backlog.addAndGet(-count);
+            return count;
+        }
+    }
+
+    private void consume(final Control control, final Blackhole hole) {
+        int remaining = batch;
+        while (remaining > 0) {
+            int count = drain(hole, remaining);
+            if (count == 0) {
+                if (control.stopMeasurement) return;
+                Thread.onSpinWait();
+            }
+            remaining -= count;
+        }
+    }
+
+    @Benchmark
+    @Group("spsc_1")
+    @GroupThreads(1)
+    @OperationsPerInvocation(1)
+    public void spsc_1_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("spsc_1")
+    @GroupThreads(1)
+    @OperationsPerInvocation(1)
+    public void spsc_1_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    @Benchmark
+    @Group("spsc_16")
+    @GroupThreads(1)
+    @OperationsPerInvocation(16)
+    public void spsc_16_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("spsc_16")
+    @GroupThreads(1)
+    @OperationsPerInvocation(16)
+    public void spsc_16_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    @Benchmark
+    @Group("spsc_256")
+    @GroupThreads(1)
+    @OperationsPerInvocation(256)
+    public void spsc_256_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("spsc_256")
+    @GroupThreads(1)
+    @OperationsPerInvocation(256)
+    public void spsc_256_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    @Benchmark
+    @Group("mpsc_1")
+    @GroupThreads(3)
+    @OperationsPerInvocation(1)
+    public void mpsc_1_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("mpsc_1")
+    @GroupThreads(1)
+    @OperationsPerInvocation(1)
+    public void mpsc_1_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    @Benchmark
+    @Group("mpsc_16")
+    @GroupThreads(3)
+    @OperationsPerInvocation(16)
+    public void mpsc_16_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("mpsc_16")
+    @GroupThreads(1)
+    @OperationsPerInvocation(16)
+    public void mpsc_16_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    @Benchmark
+    @Group("mpsc_256")
+    @GroupThreads(3)
+    @OperationsPerInvocation(256)
+    public void mpsc_256_produce(final Control control) {
+        produce(control);
+    }
+
+    @Benchmark
+    @Group("mpsc_256")
+    @GroupThreads(1)
+    @OperationsPerInvocation(256)
+    public void mpsc_256_consume(final Control control, final Blackhole hole) {
+        consume(control, hole);
+    }
+
+    /**
+     * Latency percentiles are reported by {@link Mode#SampleTime} as {@code p0.50}, {@code p0.99} and so on,
+     * use results of {@code *_consume} methods (see doc of class).
+     * <p>
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '.*QueueHandoff.*'
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(QueueHandoff.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,222 @@
+package name.valery1707.jmh;
+
+import name.valery1707.collection.ChunkedIntSortedSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered int set operations: {@link TreeSet} and {@link ConcurrentSkipListSet} vs {@link ChunkedIntSortedSet}.
+ * <p>
+ * Set contains even numbers {@code 0, 2, .. 2*(size-1)}, so half of random queries miss.
+ * Every operation makes {@code size} elementary steps per invocation:
+ * <ul>
+ * <li>{@code iterate} - visit every element in order</li>
+ * <li>{@code range} - range scans by {@link #RANGE_WIDTH} elements from random start</li>
+ * <li>{@code floorCeiling} - pair of {@code floor} and {@code ceiling} for random value</li>
+ * <li>{@code insert} - build new set from values in random order</li>
+ * </ul>
+ * Random order and queries are cached by {@link Fixtures}, shuffle of 10M values dominates setup otherwise.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class SortedSetOperations {
+    private static final int RANGE_WIDTH = 100;
+
+    @Param({"iterate", "range", "floorCeiling", "insert"})
+    public String mode;
+
+    @Param({"java.util.TreeSet", "java.util.concurrent.ConcurrentSkipListSet", "ChunkedIntSortedSet"})
+    public String clazz;
+
+    private NavigableSet<Integer> navigable;
+    private ChunkedIntSortedSet chunked;
+    private int[] queries;
+    private int[] shuffled;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(SortedSetOperations.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        shuffled = Fixtures.ints("SortedSetOperations-v1-shuffled-size=" + size, () -> shuffled(size));
+        queries = Fixtures.ints("SortedSetOperations-v1-queries-size=" + size, () -> new Random(size + 1).ints(size, 0, size * 2).toArray());
+
+        switch (clazz) {
+            case "java.util.TreeSet":
+                navigable = new TreeSet<>();
+                break;
+            case "java.util.concurrent.ConcurrentSkipListSet":
+                navigable = new ConcurrentSkipListSet<>();
+                break;
+            case "ChunkedIntSortedSet":
+                chunked = new ChunkedIntSortedSet();
+                break;
+            default:
+                throw new IllegalStateException("Unknown clazz: " + clazz);
+        }
+        for (int i = 0; i < size; i++) {
+            if (navigable != null) {
+                navigable.add(i * 2);
+            } else {
+                chunked.add(i * 2);
+            }
+        }
+    }
+
+    private static int[] shuffled(int size) {
+        Random random = new Random(size);
+        int[] shuffled = new int[size];
+        for (int i = 0; i < size; i++) {
+            shuffled[i] = i * 2;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = tmp;
+        }
+        return shuffled;
+    }
+
+    private void navigableIterate(final Blackhole hole) {
+        for (Integer value : navigable) {
+            hole.consume(value);
+        }
+    }
+
+    private void chunkedIterate(final Blackhole hole) {
+        chunked.forEachInt(value -> hole.consume(value));
+    }
+
+    private void navigableRange(final Blackhole hole) {
+        for (int i = 0; i < queries.length; i += RANGE_WIDTH) {
+            int from = queries[i];
+            for (Integer value : navigable.subSet(from, true, from + RANGE_WIDTH * 2, false)) {
+                hole.consume(value);
+            }
+        }
+    }
+
+    private void chunkedRange(final Blackhole hole) {
+        for (int i = 0; i < queries.length; i += RANGE_WIDTH) {
+            int from = queries[i];
+            chunked.forEachInt(from, from + RANGE_WIDTH * 2, value -> hole.consume(value));
+        }
+    }
+
+    private void navigableFloorCeiling(final Blackhole hole) {
+        for (int query : queries) {
+            hole.consume(navigable.floor(query));
+            hole.consume(navigable.ceiling(query));
+        }
+    }
+
+    private void chunkedFloorCeiling(final Blackhole hole) {
+        for (int query : queries) {
+            hole.consume(chunked.floor(query));
+            hole.consume(chunked.ceiling(query));
+        }
+    }
+
+    private void navigableInsert(final Blackhole hole) {
+        NavigableSet<Integer> set = navigable instanceof TreeSet ? new TreeSet<>() : new ConcurrentSkipListSet<>();
+        for (int value : shuffled) {
+            set.add(value);
+        }
+        hole.consume(set);
+    }
+
+    private void chunkedInsert(final Blackhole hole) {
+        ChunkedIntSortedSet set = new ChunkedIntSortedSet();
+        for (int value : shuffled) {
+            set.add(value);
+        }
+        hole.consume(set);
+    }
+
+    private void benchmark(final Blackhole hole) {
+        boolean isChunked = chunked != null;
+        switch (mode) {
+            case "iterate":
+                if (isChunked) chunkedIterate(hole);
+                else navigableIterate(hole);
+                break;
+            case "range":
+                if (isChunked) chunkedRange(hole);
+                else navigableRange(hole);
+                break;
+            case "floorCeiling":
+                if (isChunked) chunkedFloorCeiling(hole);
+                else navigableFloorCeiling(hole);
+                break;
+            case "insert":
+                if (isChunked) chunkedInsert(hole);
+                else navigableInsert(hole);
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000_000)
+    public void benchmark_10_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SortedSetOperations.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,263 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boxed {@code Stream<Integer>} vs {@link IntStream} and collectors vs manual collection into pre-sized containers.
+ * <p>
+ * Source holds random values in range {@code [0, size/2)}, so it has duplicates for {@code distinct} and maps.
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamPipelines {
+    private static final int GROUPS = 16;
+
+    @Param({
+            "sumBoxed", "sumPrimitive",
+            "filterCountBoxed", "filterCountPrimitive",
+            "distinctBoxed", "distinctPrimitive",
+            "sortedBoxed", "sortedPrimitive",
+            "toList", "manualList",
+            "toSet", "manualSet",
+            "toMap", "toUnmodifiableMap", "manualMap",
+            "groupingBy", "groupingByPrimitive"
+    })
+    public String mode;
+
+    private List<Integer> boxed;
+    private int[] primitive;
+
+    @Setup
+    public void setup(
+            BenchmarkParams params
+    ) {
+        int size = Integer.parseInt(params
+                .getBenchmark()
+                .substring(StreamPipelines.class.getName().length())
+                .replaceAll("[^\\d]", "")
+        );
+        primitive = new Random(size).ints(size, 0, Math.max(size / 2, 1)).toArray();
+        boxed = new ArrayList<>(size);
+        for (int value : primitive) {
+            boxed.add(value);
+        }
+    }
+
+    private Object sumBoxed() {
+        return boxed.stream().reduce(0, Integer::sum);
+    }
+
+    private Object sumPrimitive() {
+        return IntStream.of(primitive).sum();
+    }
+
+    private Object filterCountBoxed() {
+        return boxed.stream().filter(i -> i % 3 == 0).count();
+    }
+
+    private Object filterCountPrimitive() {
+        return IntStream.of(primitive).filter(i -> i % 3 == 0).count();
+    }
+
+    private Object distinctBoxed() {
+        return boxed.stream().distinct().count();
+    }
+
+    private Object distinctPrimitive() {
+        return IntStream.of(primitive).distinct().count();
+    }
+
+    private Object sortedBoxed() {
+        return boxed.stream().sorted().toArray();
+    }
+
+    private Object sortedPrimitive() {
+        return IntStream.of(primitive).sorted().toArray();
+    }
+
+    private Object toList() {
+        return boxed.stream().map(i -> i + 1).collect(Collectors.toList());
+    }
+
+    private Object manualList() {
+        List<Integer> result = new ArrayList<>(boxed.size());
+        for (Integer i : boxed) {
+            result.add(i + 1);
+        }
+        return result;
+    }
+
+    private Object toSet() {
+        return boxed.stream().collect(Collectors.toSet());
+    }
+
+    private Object manualSet() {
+        Set<Integer> result = new HashSet<>(boxed.size() * 4 / 3 + 1);
+        result.addAll(boxed);
+        return result;
+    }
+
+    private Object toMap() {
+        return boxed.stream().collect(Collectors.toMap(Function.identity(), i -> i * 2, (l, r) -> l));
+    }
+
+    private Object toUnmodifiableMap() {
+        return boxed.stream().collect(Collectors.toUnmodifiableMap(Function.identity(), i -> i * 2, (l, r) -> l));
+    }
+
+    private Object manualMap() {
+        Map<Integer, Integer> result = new HashMap<>(boxed.size() * 4 / 3 + 1);
+        for (Integer i : boxed) {
+            result.putIfAbsent(i, i * 2);
+        }
+        return result;
+    }
+
+    private Object groupingBy() {
+        return boxed.stream().collect(Collectors.groupingBy(i -> i % GROUPS));
+    }
+
+    private Object groupingByPrimitive() {
+        return boxed.stream().collect(Collectors.groupingBy(i -> i % GROUPS, Collectors.summingInt(i -> i)));
+    }
+
+    private void benchmark(final Blackhole hole) {
+        switch (mode) {
+            case "sumBoxed":
+                hole.consume(sumBoxed());
+                break;
+            case "sumPrimitive":
+                hole.consume(sumPrimitive());
+                break;
+            case "filterCountBoxed":
+                hole.consume(filterCountBoxed());
+                break;
+            case "filterCountPrimitive":
+                hole.consume(filterCountPrimitive());
+                break;
+            case "distinctBoxed":
+                hole.consume(distinctBoxed());
+                break;
+            case "distinctPrimitive":
+                hole.consume(distinctPrimitive());
+                break;
+            case "sortedBoxed":
+                hole.consume(sortedBoxed());
+                break;
+            case "sortedPrimitive":
+                hole.consume(sortedPrimitive());
+                break;
+            case "toList":
+                hole.consume(toList());
+                break;
+            case "manualList":
+                hole.consume(manualList());
+                break;
+            case "toSet":
+                hole.consume(toSet());
+                break;
+            case "manualSet":
+                hole.consume(manualSet());
+                break;
+            case "toMap":
+                hole.consume(toMap());
+                break;
+            case "toUnmodifiableMap":
+                hole.consume(toUnmodifiableMap());
+                break;
+            case "manualMap":
+                hole.consume(manualMap());
+                break;
+            case "groupingBy":
+                hole.consume(groupingBy());
+                break;
+            case "groupingByPrimitive":
+                hole.consume(groupingByPrimitive());
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public void benchmark_1(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void benchmark_10(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void benchmark_100(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void benchmark_1_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void benchmark_10_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void benchmark_100_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public void benchmark_1_000_000(final Blackhole hole) {
+        benchmark(hole);
+    }
+
+    /**
+     * Allocation is reported by {@link GCProfiler}: see {@code gc.alloc.rate.norm} (bytes/op) in results.
+     * <p>
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '.*StreamPipelines.*' -prof gc
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StreamPipelines.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}
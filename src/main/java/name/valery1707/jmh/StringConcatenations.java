@@ -13,18 +13,19 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.StringJoiner;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
 @SuppressWarnings("DefaultAnnotationParam")
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -33,48 +34,159 @@ import java.util.stream.Stream;
 @Fork(1)
 @State(Scope.Thread)
 public class StringConcatenations {
-    @Param({"plus", "join"})
+    private static final String SEPARATOR = "_";
+    private static final char[] DIGITS = "123456789".toCharArray();
+
+    @Param({"plus", "join", "builder", "concat", "joiner", "latin1"})
     public String mode;
 
+    /**
+     * Count of key parts: even parts have {@link #lhsLen} length, odd parts have {@link #rhsLen} length
+     */
+    @Param({"2", "3", "5", "8"})
+    public int parts;
+
     @Param({"0", "1", "10", "50"})
     public int lhsLen;
 
     @Param({"0", "1", "10", "50"})
     public int rhsLen;
 
-    private String lhs;
-    private String rhs;
+    @Param(Datasets.SEED)
+    public long seed;
+
+    /**
+     * Distribution of lengths of parts around {@link #lhsLen} and {@link #rhsLen}, see {@link Datasets#length(String, double)}
+     */
+    @Param("fixed")
+    public String lengths;
 
-    private String plus(String lhs, String rhs) {
-        return lhs + "_" + rhs;
+    /**
+     * Share of characters outside of Latin-1, see {@link Datasets#text(int, char[], double)}.
+     * Mode {@code latin1} is not valid for such parts.
+     */
+    @Param("0")
+    public double unicode;
+
+    private String[] source;
+
+    /**
+     * Fixed arity chain of {@code +} as it is written in the real code: {@code a + "_" + b + "_" + c}
+     */
+    private String plus(String[] parts) {
+        switch (parts.length) {
+            case 2:
+                return parts[0] + "_" + parts[1];
+            case 3:
+                return parts[0] + "_" + parts[1] + "_" + parts[2];
+            case 4:
+                return parts[0] + "_" + parts[1] + "_" + parts[2] + "_" + parts[3];
+            case 5:
+                return parts[0] + "_" + parts[1] + "_" + parts[2] + "_" + parts[3] + "_" + parts[4];
+            case 6:
+                return parts[0] + "_" + parts[1] + "_" + parts[2] + "_" + parts[3] + "_" + parts[4] + "_" + parts[5];
+            case 7:
+                return parts[0] + "_" + parts[1] + "_" + parts[2] + "_" + parts[3] + "_" + parts[4] + "_" + parts[5] + "_" + parts[6];
+            case 8:
+                return parts[0] + "_" + parts[1] + "_" + parts[2] + "_" + parts[3] + "_" + parts[4] + "_" + parts[5] + "_" + parts[6] + "_" + parts[7];
+            default:
+                throw new IllegalStateException("Unsupported parts count: " + parts.length);
+        }
     }
 
-    private String join(String lhs, String rhs) {
-        return String.join("_", lhs, rhs);
+    private String join(String[] parts) {
+        return String.join(SEPARATOR, parts);
     }
 
-    @Setup
-    public void setup() {
-        ThreadLocalRandom random = ThreadLocalRandom.current();
-        lhs = generate(random, lhsLen);
-        rhs = generate(random, rhsLen);
+    /**
+     * {@link StringBuilder} with capacity calculated before appending, so internal buffer never grows
+     */
+    private String builder(String[] parts) {
+        int capacity = parts.length - 1;
+        for (String part : parts) {
+            capacity += part.length();
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        builder.append(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            builder.append(SEPARATOR).append(parts[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Chain of {@link String#concat(String)}: every step allocates intermediate string
+     */
+    private String concat(String[] parts) {
+        String result = parts[0];
+        for (int i = 1; i < parts.length; i++) {
+            result = result.concat(SEPARATOR).concat(parts[i]);
+        }
+        return result;
     }
 
-    private String generate(Random random, int len) {
-        return random
-                .ints(1, 10)
-                .limit(len).mapToObj(String::valueOf)
-                .collect(Collectors.joining())
-                .substring(0, len);
+    private String joiner(String[] parts) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (String part : parts) {
+            joiner.add(part);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Hand-rolled joiner over single {@code byte[]}.
+     * Valid only for Latin-1 parts: every char is copied as its low byte.
+     */
+    @SuppressWarnings("deprecation")
+    private String latin1(String[] parts) {
+        int length = parts.length - 1;
+        for (String part : parts) {
+            length += part.length();
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                bytes[offset++] = '_';
+            }
+            String part = parts[i];
+            part.getBytes(0, part.length(), bytes, offset);
+            offset += part.length();
+        }
+        return new String(bytes, ISO_8859_1);
+    }
+
+    @Setup
+    public void setup() {
+        if ("latin1".equals(mode) && unicode > 0) {
+            throw new IllegalArgumentException("Mode latin1 supports only Latin-1 parts, but unicode=" + unicode);
+        }
+        Datasets datasets = new Datasets(seed);
+        source = new String[parts];
+        for (int i = 0; i < parts; i++) {
+            source[i] = datasets.text(datasets.length(lengths, i % 2 == 0 ? lhsLen : rhsLen), DIGITS, unicode);
+        }
     }
 
     private void benchmark(final Blackhole hole) {
         switch (mode) {
             case "plus":
-                hole.consume(plus(lhs, rhs));
+                hole.consume(plus(source));
                 break;
             case "join":
-                hole.consume(join(lhs, rhs));
+                hole.consume(join(source));
+                break;
+            case "builder":
+                hole.consume(builder(source));
+                break;
+            case "concat":
+                hole.consume(concat(source));
+                break;
+            case "joiner":
+                hole.consume(joiner(source));
+                break;
+            case "latin1":
+                hole.consume(latin1(source));
                 break;
             default:
                 throw new IllegalStateException("Unknown mode: " + mode);
@@ -99,9 +211,19 @@ public class StringConcatenations {
         benchmark(hole);
     }
 
+    /**
+     * Allocation is reported by {@link GCProfiler}: see {@code gc.alloc.rate.norm} (bytes/op) in results.
+     * <p>
+     * Via the command line:
+     * $ java -jar target/benchmarks.jar '.*StringConcatenations.*' -prof gc
+     *
+     * @param args Arguments
+     * @throws RunnerException Possible exception
+     */
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(StringConcatenations.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
                 .warmupIterations(1)
                 .warmupTime(TimeValue.seconds(1))
                 .measurementIterations(1)
@@ -0,0 +1,41 @@
+package name.valery1707.profile;
+
+import java.lang.annotation.*;
+
+/**
+ * Maximal allocation of benchmark in bytes per operation, checked by {@link AllocationBudgetProfiler}.
+ * <p>
+ * Placed on benchmark method or on class. Budget is applied only to runs where every condition from {@link #when()}
+ * in form {@code param=value} matches, so modes of one benchmark can have different budgets.
+ * First matching budget of method wins over budgets of class.
+ * <p>
+ * Operations include {@code @OperationsPerInvocation}, which is count of elements in most benchmarks here,
+ * so allocation which does not depend on size (iterator, lambda, result) is declared with {@link #perInvocation()}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Repeatable(AllocationBudget.List.class)
+public @interface AllocationBudget {
+    /**
+     * @return Bytes per operation, operations are counted as JMH does: with {@code @OperationsPerInvocation}
+     */
+    double value();
+
+    /**
+     * @return {@code true} when {@link #value()} is bytes per invocation of method, it is divided by {@code @OperationsPerInvocation}
+     */
+    boolean perInvocation() default false;
+
+    /**
+     * @return Conditions on values of parameters, e.g. {@code "mode=forEachJava8"}
+     */
+    String[] when() default {};
+
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    @interface List {
+        AllocationBudget[] value();
+    }
+}
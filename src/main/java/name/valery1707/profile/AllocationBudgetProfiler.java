@@ -0,0 +1,144 @@
+package name.valery1707.profile;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Allocated bytes per operation by {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long[])}
+ * of all threads around every iteration, and assertion of declared budget.
+ * <p>
+ * Budget is declared by {@link AllocationBudget} on benchmark method or class, or by parameter {@value #PARAM}
+ * (budget of parameter wins, negative value disables check).
+ * Budget is checked per operation, budget declared per invocation is divided by {@code @OperationsPerInvocation}.
+ * Measurement iteration over budget fails the benchmark, with {@code -foe true} it fails whole run.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar '.*CollectionIteration.*' -foe true -prof name.valery1707.profile.AllocationBudgetProfiler
+ */
+@SuppressWarnings("WeakerAccess")
+public class AllocationBudgetProfiler implements InternalProfiler {
+    public static final String PARAM = "allocationBudget";
+
+    private final com.sun.management.ThreadMXBean threads;
+    private Map<Long, Long> before;
+
+    public AllocationBudgetProfiler() throws ProfilerException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new ProfilerException("Allocated bytes of thread are not available in this JVM");
+        }
+        threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new ProfilerException("Allocated bytes of thread are not supported by this JVM");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Allocated bytes per operation with assertion of @AllocationBudget";
+    }
+
+    private Map<Long, Long> snapshot() {
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> snapshot = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                snapshot.put(ids[i], bytes[i]);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        before = snapshot();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : snapshot().entrySet()) {
+            allocated += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+        }
+        long ops = result.getMetadata().getAllOps();
+        double perOp = ops > 0 ? (double) allocated / ops : Double.NaN;
+        OptionalDouble budget = budget(benchmarkParams);
+        if (iterationParams.getType() == IterationType.MEASUREMENT && budget.isPresent() && perOp > budget.getAsDouble()) {
+            throw new IllegalStateException(String.format(Locale.ROOT,
+                    "Allocation budget is exceeded by %s %s: %.3f B/op > %.3f B/op",
+                    benchmarkParams.getBenchmark(), params(benchmarkParams), perOp, budget.getAsDouble()
+            ));
+        }
+        List<Result> results = new ArrayList<>(2);
+        results.add(new ScalarResult("·alloc.bytes.norm", perOp, "B/op", AggregationPolicy.AVG));
+        if (budget.isPresent()) {
+            results.add(new ScalarResult("·alloc.budget.norm", budget.getAsDouble(), "B/op", AggregationPolicy.MAX));
+        }
+        return results;
+    }
+
+    private static Map<String, String> params(BenchmarkParams benchmarkParams) {
+        Map<String, String> params = new TreeMap<>();
+        for (String key : benchmarkParams.getParamsKeys()) {
+            params.put(key, benchmarkParams.getParam(key));
+        }
+        return params;
+    }
+
+    /**
+     * @param benchmarkParams Parameters of benchmark
+     * @return Budget per operation from parameter {@value #PARAM}, from annotation of method or from annotation of class
+     */
+    static OptionalDouble budget(BenchmarkParams benchmarkParams) {
+        Map<String, String> params = params(benchmarkParams);
+        if (params.containsKey(PARAM)) {
+            double budget = Double.parseDouble(params.get(PARAM));
+            return budget < 0 ? OptionalDouble.empty() : OptionalDouble.of(budget);
+        }
+        String benchmark = benchmarkParams.getBenchmark();
+        int split = benchmark.lastIndexOf('.');
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(benchmark.substring(0, split));
+        } catch (ClassNotFoundException e) {
+            return OptionalDouble.empty();
+        }
+        String name = benchmark.substring(split + 1);
+        for (Method method : clazz.getMethods()) {
+            if (method.getName().equals(name)) {
+                OptionalDouble budget = budget(method, params, benchmarkParams.getOpsPerInvocation());
+                if (budget.isPresent()) {
+                    return budget;
+                }
+            }
+        }
+        return budget(clazz, params, benchmarkParams.getOpsPerInvocation());
+    }
+
+    private static OptionalDouble budget(AnnotatedElement element, Map<String, String> params, int opsPerInvocation) {
+        for (AllocationBudget budget : element.getAnnotationsByType(AllocationBudget.class)) {
+            if (Arrays.stream(budget.when()).allMatch(condition -> {
+                int split = condition.indexOf('=');
+                return split > 0 && condition.substring(split + 1).equals(params.get(condition.substring(0, split)));
+            })) {
+                return OptionalDouble.of(budget.perInvocation() ? budget.value() / opsPerInvocation : budget.value());
+            }
+        }
+        return OptionalDouble.empty();
+    }
+}
@@ -0,0 +1,275 @@
+package name.valery1707.profile;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.ExternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compilation log of HotSpot ({@code -XX:+LogCompilation}) of every fork, summarized for methods of benchmark class
+ * and its generated stubs: compilation tiers, inlining decisions with reasons, deoptimizations and OSR compilations.
+ * <p>
+ * Log is parsed after end of fork and is kept in {@code dir} for manual analysis (for example with JITWatch).
+ * Option {@code filter} overrides regexp of classes to report, default is simple name of benchmark class.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar '.*ArrayAndListSizeCache.*' -prof 'name.valery1707.profile.CompilationLogProfiler:top=20;dir=target/jit'
+ */
+@SuppressWarnings("WeakerAccess")
+public class CompilationLogProfiler implements ExternalProfiler {
+    private static final Pattern ELEMENT = Pattern.compile("^<(/?[a-z_]+)");
+    private static final Pattern ATTRIBUTE = Pattern.compile("([a-z_]+)='([^']*)'");
+
+    private final int top;
+    private final Path dir;
+    private final Pattern filter;
+
+    public CompilationLogProfiler(String initLine) {
+        Map<String, String> options = new HashMap<>();
+        for (String option : initLine.split("[;,]")) {
+            int split = option.indexOf('=');
+            if (split > 0) {
+                options.put(option.substring(0, split).trim(), option.substring(split + 1).trim());
+            }
+        }
+        top = Integer.parseInt(options.getOrDefault("top", "20"));
+        dir = Paths.get(options.getOrDefault("dir", "target/jit"));
+        filter = options.containsKey("filter") ? Pattern.compile(options.get("filter")) : null;
+    }
+
+    @Override
+    public String getDescription() {
+        return "HotSpot compilation log: tiers, inlining decisions, deoptimizations and OSR of benchmark methods";
+    }
+
+    @Override
+    public Collection<String> addJVMInvokeOptions(BenchmarkParams params) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> addJVMOptions(BenchmarkParams params) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail to create directory for compilation log", e);
+        }
+        return List.of(
+                "-XX:+UnlockDiagnosticVMOptions",
+                "-XX:+LogCompilation",
+                "-XX:LogFile=" + dir.resolve(params.id() + "-%p.log")
+        );
+    }
+
+    @Override
+    public void beforeTrial(BenchmarkParams benchmarkParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterTrial(BenchmarkResult br, long pid, File stdOut, File stdErr) {
+        BenchmarkParams params = br.getParams();
+        Path file = dir.resolve(params.id() + "-pid" + pid + ".log");
+        if (!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        String benchmark = params.getBenchmark();
+        String clazz = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1, benchmark.lastIndexOf('.'));
+        Pattern classes = filter != null ? filter : Pattern.compile("(^|\\.)" + Pattern.quote(clazz) + "(_|$)");
+        Summary summary = new Summary(classes);
+        try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                summary.accept(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail to read compilation log", e);
+        }
+        return List.of(
+                new TextResult("·jit", summary.report(file)),
+                new ScalarResult("·jit.compilations", summary.compilations, "#", AggregationPolicy.SUM),
+                new ScalarResult("·jit.osr", summary.osr, "#", AggregationPolicy.SUM),
+                new ScalarResult("·jit.inline.failures", summary.inlineFailures, "#", AggregationPolicy.SUM),
+                new ScalarResult("·jit.deopts", summary.deopts, "#", AggregationPolicy.SUM)
+        );
+    }
+
+    @Override
+    public boolean allowPrintOut() {
+        return true;
+    }
+
+    @Override
+    public boolean allowPrintErr() {
+        return true;
+    }
+
+    private static Map<String, String> attributes(String line) {
+        Map<String, String> attributes = new HashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(line);
+        while (matcher.find()) {
+            attributes.put(matcher.group(1), matcher.group(2)
+                    .replace("&lt;", "<").replace("&gt;", ">")
+                    .replace("&apos;", "'").replace("&quot;", "\"").replace("&amp;", "&")
+            );
+        }
+        return attributes;
+    }
+
+    /**
+     * @param method Method from attribute {@code method} of task: {@code holder name (signature)return}
+     * @return Short name {@code Holder.name}
+     */
+    private static String shortName(String method) {
+        String[] parts = method.replace('/', '.').split(" ");
+        return parts[0].substring(parts[0].lastIndexOf('.') + 1) + "." + parts[1];
+    }
+
+    /**
+     * Streaming state of parser: compilation log is concatenation of logs of compiler threads,
+     * so tasks are not interleaved and identifiers of methods are valid till end of task
+     */
+    private final class Summary {
+        private final Pattern classes;
+        private final Map<String, String> compiled = new HashMap<>();
+        private final Map<String, Set<String>> tiers = new TreeMap<>();
+        private final Map<String, Integer> inlining = new HashMap<>();
+        private final Map<String, Integer> deoptimizations = new HashMap<>();
+        private final List<Map<String, String>> traps = new ArrayList<>();
+        private final Map<String, String> klasses = new HashMap<>();
+        private final Map<String, String> methods = new HashMap<>();
+        private final Deque<String> parses = new ArrayDeque<>();
+        private String task;
+        private String callee;
+        private int compilations;
+        private int osr;
+        private int inlineFailures;
+        private int deopts;
+
+        private Summary(Pattern classes) {
+            this.classes = classes;
+        }
+
+        private boolean matches(String method) {
+            return classes.matcher(method.substring(0, method.indexOf(' ')).replace('/', '.')).find();
+        }
+
+        private void accept(String line) {
+            Matcher element = ELEMENT.matcher(line);
+            if (!element.find()) {
+                return;
+            }
+            switch (element.group(1)) {
+                case "task": {
+                    Map<String, String> attributes = attributes(line);
+                    String method = attributes.get("method");
+                    compiled.put(attributes.get("compile_id"), method);
+                    task = matches(method) ? method : null;
+                    klasses.clear();
+                    methods.clear();
+                    parses.clear();
+                    if (task != null) {
+                        boolean isOsr = "osr".equals(attributes.get("compile_kind"));
+                        compilations++;
+                        osr += isOsr ? 1 : 0;
+                        tiers.computeIfAbsent(shortName(method), key -> new TreeSet<>())
+                                .add(attributes.getOrDefault("level", "4") + (isOsr ? "%" : ""));
+                    }
+                    break;
+                }
+                case "/task":
+                    task = null;
+                    break;
+                case "nmethod": {
+                    Map<String, String> attributes = attributes(line);
+                    compiled.putIfAbsent(attributes.get("compile_id"), attributes.get("method"));
+                    break;
+                }
+                case "klass":
+                case "type": {
+                    Map<String, String> attributes = attributes(line);
+                    klasses.put(attributes.get("id"), attributes.get("name"));
+                    break;
+                }
+                case "method": {
+                    Map<String, String> attributes = attributes(line);
+                    String holder = klasses.getOrDefault(attributes.get("holder"), "?");
+                    methods.put(attributes.get("id"), holder.substring(holder.lastIndexOf('.') + 1) + "." + attributes.get("name"));
+                    break;
+                }
+                case "parse":
+                    parses.push(methods.getOrDefault(attributes(line).get("method"), "?"));
+                    break;
+                case "/parse":
+                    parses.poll();
+                    break;
+                case "call":
+                    callee = methods.getOrDefault(attributes(line).get("method"), "?");
+                    break;
+                case "inline_success":
+                case "inline_fail":
+                    if (task != null && callee != null) {
+                        boolean success = "inline_success".equals(element.group(1));
+                        inlineFailures += success ? 0 : 1;
+                        String caller = parses.isEmpty() ? shortName(task) : parses.peek();
+                        inlining.merge((success ? "+ " : "- ") + caller + " -> " + callee + ": " + attributes(line).get("reason"), 1, Integer::sum);
+                    }
+                    callee = null;
+                    break;
+                case "uncommon_trap":
+                case "deoptimized":
+                    if (line.contains(" thread='")) {
+                        traps.add(attributes(line));
+                    }
+                    break;
+                default:
+            }
+        }
+
+        private String report(Path file) {
+            for (Map<String, String> trap : traps) {
+                String method = compiled.get(trap.get("compile_id"));
+                if (method != null && matches(method)) {
+                    deopts++;
+                    String kind = "osr".equals(trap.get("compile_kind")) ? "%" : "";
+                    deoptimizations.merge(String.format(Locale.ROOT, "%s (level %s%s): %s%s",
+                            shortName(method), trap.getOrDefault("level", "?"), kind, trap.get("reason"),
+                            trap.containsKey("action") ? "/" + trap.get("action") : ""
+                    ), 1, Integer::sum);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            text.append("Compilation log: ").append(file.toAbsolutePath()).append('\n');
+            text.append("Compilations (levels, % is OSR):\n");
+            tiers.forEach((method, levels) -> text.append("  ").append(method).append(": ").append(String.join(", ", levels)).append('\n'));
+            table(text, "Inlining (- not inlined first, + inlined)", inlining);
+            table(text, "Deoptimizations", deoptimizations);
+            return text.toString();
+        }
+
+        private void table(StringBuilder text, String title, Map<String, Integer> counts) {
+            text.append(title).append(":\n");
+            counts.entrySet().stream()
+                    .sorted(Comparator.comparing((Map.Entry<String, Integer> entry) -> entry.getKey().charAt(0) != '-')
+                            .thenComparing(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+                            .thenComparing(Map.Entry.comparingByKey())
+                    )
+                    .limit(top)
+                    .forEach(entry -> text.append(String.format(Locale.ROOT, "  %6d x %s%n", entry.getValue(), entry.getKey())));
+        }
+    }
+}
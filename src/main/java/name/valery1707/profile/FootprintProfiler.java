@@ -0,0 +1,96 @@
+package name.valery1707.profile;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap of data structure per element, reported as secondary result {@value #LABEL} of every measurement iteration.
+ * <p>
+ * Benchmark registers factory of filled structure by {@link #register(Supplier, int)} from {@code @Setup},
+ * profiler builds many copies of it after first measurement iteration (outside of measured time)
+ * and divides growth of used heap after full GC by count of elements in all copies.
+ * Without registration nothing is reported.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar '.*HashSetOperations.*' -prof name.valery1707.profile.FootprintProfiler
+ */
+@SuppressWarnings("WeakerAccess")
+public class FootprintProfiler implements InternalProfiler {
+    public static final String LABEL = "·footprint.bytesPerElement";
+
+    /**
+     * Count of elements in all copies of structure
+     */
+    private static final int ELEMENTS = 100_000;
+
+    private static volatile Supplier<?> structure;
+    private static volatile int elements;
+
+    private double footprint = Double.NaN;
+
+    public FootprintProfiler() {
+        structure = null;
+    }
+
+    /**
+     * @param structure Factory of new filled structure
+     * @param elements  Count of elements in one structure
+     */
+    public static void register(Supplier<?> structure, int elements) {
+        FootprintProfiler.elements = elements;
+        FootprintProfiler.structure = structure;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Retained heap of registered data structure per element";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        Supplier<?> factory = structure;
+        if (iterationParams.getType() != IterationType.MEASUREMENT || factory == null) {
+            return Collections.emptyList();
+        }
+        if (Double.isNaN(footprint)) {
+            footprint = measure(factory, elements);
+        }
+        return List.of(new ScalarResult(LABEL, footprint, "B/element", AggregationPolicy.AVG));
+    }
+
+    private static double measure(Supplier<?> factory, int elements) {
+        int copies = Math.max(1, ELEMENTS / Math.max(1, elements));
+        Object[] holder = new Object[copies];
+        long before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            holder[i] = factory.get();
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(holder);
+        return (after - before) / ((double) copies * Math.max(1, elements));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
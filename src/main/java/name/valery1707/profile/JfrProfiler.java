@@ -0,0 +1,163 @@
+package name.valery1707.profile;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * JDK Flight Recorder recording of measurement iterations of every fork with summary in results:
+ * top methods by execution samples, top allocation sites by TLAB allocations, GC pauses and safepoints.
+ * <p>
+ * Recording starts before first measurement iteration and stops after last one, so warmup is not recorded.
+ * It is parsed by {@link RecordingFile} inside of fork and is kept in {@code dir} for manual analysis.
+ * Counters are totals of whole recording reported with last iteration, so result of run is maximum over forks.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar '.*CollectionIteration.*' -prof 'name.valery1707.profile.JfrProfiler:top=10;dir=target/jfr'
+ */
+@SuppressWarnings("WeakerAccess")
+public class JfrProfiler implements InternalProfiler {
+    private final int top;
+    private final Path dir;
+
+    private Recording recording;
+    private int measurements;
+
+    public JfrProfiler(String initLine) {
+        Map<String, String> options = new HashMap<>();
+        for (String option : initLine.split("[;,]")) {
+            int split = option.indexOf('=');
+            if (split > 0) {
+                options.put(option.substring(0, split).trim(), option.substring(split + 1).trim());
+            }
+        }
+        top = Integer.parseInt(options.getOrDefault("top", "10"));
+        dir = Paths.get(options.getOrDefault("dir", "target/jfr"));
+    }
+
+    @Override
+    public String getDescription() {
+        return "JDK Flight Recorder of measurement iterations: hot methods, allocation sites, GC pauses, safepoints";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        if (iterationParams.getType() != IterationType.MEASUREMENT || recording != null) {
+            return;
+        }
+        recording = new Recording();
+        recording.setName("jmh");
+        recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+        recording.enable("jdk.ObjectAllocationInNewTLAB").withStackTrace();
+        recording.enable("jdk.ObjectAllocationOutsideTLAB").withStackTrace();
+        recording.enable("jdk.GarbageCollection");
+        recording.enable("jdk.SafepointBegin");
+        recording.start();
+        measurements = 0;
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        if (iterationParams.getType() != IterationType.MEASUREMENT || recording == null || ++measurements < iterationParams.getCount()) {
+            return Collections.emptyList();
+        }
+        try {
+            recording.stop();
+            Files.createDirectories(dir);
+            Path file = dir.resolve(benchmarkParams.id() + "-" + ProcessHandle.current().pid() + ".jfr");
+            recording.dump(file);
+            return summary(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail to dump recording", e);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Collection<? extends Result> summary(Path file) throws IOException {
+        Map<String, Long> methods = new HashMap<>();
+        Map<String, Long> allocations = new HashMap<>();
+        long samples = 0;
+        long allocated = 0;
+        long pauses = 0;
+        Duration pauseTotal = Duration.ZERO;
+        long safepoints = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "jdk.ExecutionSample":
+                    methods.merge(frame(event.getStackTrace()), 1L, Long::sum);
+                    samples++;
+                    break;
+                case "jdk.ObjectAllocationInNewTLAB":
+                    allocated += allocation(allocations, event, event.getLong("tlabSize"));
+                    break;
+                case "jdk.ObjectAllocationOutsideTLAB":
+                    allocated += allocation(allocations, event, event.getLong("allocationSize"));
+                    break;
+                case "jdk.GarbageCollection":
+                    pauses++;
+                    pauseTotal = pauseTotal.plus(event.getDuration("sumOfPauses"));
+                    break;
+                case "jdk.SafepointBegin":
+                    safepoints++;
+                    break;
+                default:
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        text.append("Recording: ").append(file.toAbsolutePath()).append('\n');
+        table(text, "Hot methods (execution samples)", methods, samples);
+        table(text, "Allocation sites (TLAB bytes, sampled)", allocations, allocated);
+        text.append(String.format(Locale.ROOT, "GC: %d collections, %.3f ms of pauses; safepoints: %d%n",
+                pauses, pauseTotal.toNanos() / 1e6, safepoints));
+        return List.of(
+                new TextResult("·jfr", text.toString()),
+                new ScalarResult("·jfr.gc.count", pauses, "#", AggregationPolicy.MAX),
+                new ScalarResult("·jfr.gc.pause", pauseTotal.toNanos() / 1e6, "ms", AggregationPolicy.MAX),
+                new ScalarResult("·jfr.safepoint.count", safepoints, "#", AggregationPolicy.MAX)
+        );
+    }
+
+    private static long allocation(Map<String, Long> allocations, RecordedEvent event, long size) {
+        String clazz = event.getClass("objectClass").getName();
+        allocations.merge(clazz + " at " + frame(event.getStackTrace()), size, Long::sum);
+        return size;
+    }
+
+    private static String frame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private void table(StringBuilder text, String title, Map<String, Long> counts, long total) {
+        text.append(title).append(", total ").append(total).append(":\n");
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .forEach(entry -> text.append(String.format(Locale.ROOT, "  %6.2f%%  %12d  %s%n",
+                        total == 0 ? 0.0 : 100.0 * entry.getValue() / total, entry.getValue(), entry.getKey()
+                )));
+    }
+}
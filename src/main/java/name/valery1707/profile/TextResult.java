@@ -0,0 +1,53 @@
+package name.valery1707.profile;
+
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.Aggregator;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ResultRole;
+
+import java.util.Collection;
+
+/**
+ * Secondary result with text report of profiler, texts of threads and forks are concatenated
+ */
+@SuppressWarnings("WeakerAccess")
+public class TextResult extends Result<TextResult> {
+    private static final long serialVersionUID = 1L;
+
+    private final String text;
+
+    public TextResult(String label, String text) {
+        super(ResultRole.SECONDARY, label, of(Double.NaN), "---", AggregationPolicy.AVG);
+        this.text = text;
+    }
+
+    @Override
+    protected Aggregator<TextResult> getThreadAggregator() {
+        return TextResult::merge;
+    }
+
+    @Override
+    protected Aggregator<TextResult> getIterationAggregator() {
+        return TextResult::merge;
+    }
+
+    private static TextResult merge(Collection<TextResult> results) {
+        String label = null;
+        StringBuilder text = new StringBuilder();
+        for (TextResult result : results) {
+            label = result.getLabel();
+            text.append(result.text);
+        }
+        return new TextResult(label, text.toString());
+    }
+
+    @Override
+    public String toString() {
+        return "<see below>";
+    }
+
+    @Override
+    public String extendedInfo() {
+        return text;
+    }
+}
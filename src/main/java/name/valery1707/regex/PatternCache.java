@@ -0,0 +1,158 @@
+package name.valery1707.regex;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded thread-safe cache of compiled {@link Pattern}s.
+ * <p>
+ * Reads are lock-free: lookup in {@link ConcurrentHashMap} and set of {@code referenced} bit, only if it is not set yet.
+ * Misses compile pattern outside of lock and then insert it under lock with CLOCK (second chance) eviction,
+ * which approximates LRU without reordering on every hit.
+ * <p>
+ * Global instance is intended as drop-in for call sites like {@link String#replaceAll(String, String)},
+ * which compile regex on every call:
+ * {@code source.replaceAll(regex, " ")} becomes {@code PatternCache.compile(regex).matcher(source).replaceAll(" ")}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PatternCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final PatternCache GLOBAL = new PatternCache(DEFAULT_CAPACITY);
+
+    private final ConcurrentHashMap<Object, Entry> map;
+    private final Entry[] ring;
+    private int filled;
+    private int hand;
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PatternCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        map = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        ring = new Entry[capacity];
+    }
+
+    public static PatternCache global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param regex Expression to compile
+     * @return Compiled pattern from global cache
+     * @see Pattern#compile(String)
+     */
+    public static Pattern compile(String regex) {
+        return GLOBAL.get(regex, 0);
+    }
+
+    /**
+     * @param regex Expression to compile
+     * @param flags Match flags
+     * @return Compiled pattern from global cache
+     * @see Pattern#compile(String, int)
+     */
+    public static Pattern compile(String regex, int flags) {
+        return GLOBAL.get(regex, flags);
+    }
+
+    public Pattern get(String regex) {
+        return get(regex, 0);
+    }
+
+    public Pattern get(String regex, int flags) {
+        Object key = flags == 0 ? regex : new Key(regex, flags);
+        Entry entry = map.get(key);
+        if (entry != null) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.pattern;
+        }
+        return load(key, regex, flags);
+    }
+
+    private Pattern load(Object key, String regex, int flags) {
+        Pattern pattern = Pattern.compile(regex, flags);
+        misses.increment();
+        synchronized (ring) {
+            Entry existing = map.get(key);
+            if (existing != null) {
+                return existing.pattern;
+            }
+            Entry entry = new Entry(key, pattern);
+            if (filled < ring.length) {
+                ring[filled++] = entry;
+            } else {
+                Entry victim;
+                while ((victim = ring[hand]).referenced) {
+                    victim.referenced = false;
+                    hand = (hand + 1) % ring.length;
+                }
+                map.remove(victim.key);
+                evictions.increment();
+                ring[hand] = entry;
+                hand = (hand + 1) % ring.length;
+            }
+            map.put(key, entry);
+        }
+        return pattern;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return Count of compilations since creation
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private static final class Entry {
+        private final Object key;
+        private final Pattern pattern;
+        private volatile boolean referenced;
+
+        private Entry(Object key, Pattern pattern) {
+            this.key = key;
+            this.pattern = pattern;
+        }
+    }
+
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        private Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return flags == key.flags && regex.equals(key.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package name.valery1707.runner;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Runs measurement iterations one by one and stops every combination of benchmark and parameters as soon as result converges,
+ * instead of fixed count of iterations from annotations.
+ * <p>
+ * Every combination runs in own JVM (same as fork of JMH), which calls JMH in-process with single iteration per call,
+ * so JIT state survives between iterations. Combination stops with first of reasons:
+ * <ul>
+ * <li>{@link StopReason#CONFIDENCE} - half-width of 95% confidence interval is below {@code adaptive.target} of mean</li>
+ * <li>{@link StopReason#STEADY_STATE} - means of two last windows of {@code adaptive.window} iterations
+ * differ less than {@code adaptive.target} and confidence interval is below twice the target:
+ * there is no drift, more iterations will only slowly shrink the noise</li>
+ * <li>{@link StopReason#MAX_ITERATIONS} - {@code adaptive.max} iterations were made</li>
+ * </ul>
+ * <p>
+ * Via the command line:
+ * $ java -cp target/benchmarks.jar -Dadaptive.target=0.02 name.valery1707.runner.AdaptiveRunner 'FillInVariables'
+ */
+@SuppressWarnings("WeakerAccess")
+public final class AdaptiveRunner {
+    private static final String FORK = "--fork";
+    private static final String OUTCOME = "# adaptive\t";
+
+    private AdaptiveRunner() {
+    }
+
+    public enum StopReason {
+        CONFIDENCE, STEADY_STATE, MAX_ITERATIONS
+    }
+
+    /**
+     * Limits of measurement, read from system properties {@code adaptive.*}
+     */
+    public static final class Settings {
+        public final double target = Double.parseDouble(System.getProperty("adaptive.target", "0.02"));
+        public final int warmup = Integer.getInteger("adaptive.warmup", 3);
+        public final int min = Integer.getInteger("adaptive.min", 5);
+        public final int max = Integer.getInteger("adaptive.max", 30);
+        public final int window = Integer.getInteger("adaptive.window", 5);
+        public final int seconds = Integer.getInteger("adaptive.time", 1);
+
+        private List<String> asJvmArgs() {
+            return List.of(
+                    "-Dadaptive.target=" + target,
+                    "-Dadaptive.warmup=" + warmup,
+                    "-Dadaptive.min=" + min,
+                    "-Dadaptive.max=" + max,
+                    "-Dadaptive.window=" + window,
+                    "-Dadaptive.time=" + seconds
+            );
+        }
+    }
+
+    public static final class Outcome {
+        public final StopReason reason;
+        public final int iterations;
+        public final double score;
+        public final double error;
+        public final String unit;
+
+        public Outcome(StopReason reason, int iterations, double score, double error, String unit) {
+            this.reason = reason;
+            this.iterations = iterations;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        private String toLine() {
+            return OUTCOME + String.join("\t", reason.name(), Integer.toString(iterations), Double.toString(score), Double.toString(error), unit);
+        }
+
+        private static Outcome fromLine(String line) {
+            String[] parts = line.substring(OUTCOME.length()).split("\t");
+            return new Outcome(StopReason.valueOf(parts[0]), Integer.parseInt(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), parts[4]);
+        }
+    }
+
+    /**
+     * Measures single combination in current JVM.
+     *
+     * @param benchmark Full name of benchmark method
+     * @param mode      Mode of benchmark
+     * @param params    Values of parameters
+     * @param settings  Limits of measurement
+     * @return Outcome with reason of stop
+     * @throws RunnerException Possible exception
+     */
+    public static Outcome measure(String benchmark, Mode mode, Map<String, String> params, Settings settings) throws RunnerException {
+        List<Double> scores = new ArrayList<>(settings.max);
+        String unit = "";
+        while (true) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include("^" + Pattern.quote(benchmark) + "$")
+                    .mode(mode)
+                    .forks(0)
+                    .warmupIterations(scores.isEmpty() ? settings.warmup : 0)
+                    .warmupTime(TimeValue.seconds(settings.seconds))
+                    .measurementIterations(1)
+                    .measurementTime(TimeValue.seconds(settings.seconds))
+                    .verbosity(VerboseMode.SILENT)
+                    .shouldFailOnError(true);
+            params.forEach(builder::param);
+            Result<?> result = new Runner(builder.build()).runSingle().getPrimaryResult();
+            scores.add(result.getScore());
+            unit = result.getScoreUnit();
+
+            int n = scores.size();
+            double mean = mean(scores, 0, n);
+            double error = n > 1 ? tQuantile975(n - 1) * stdDev(scores, mean) / Math.sqrt(n) : Double.NaN;
+            if (n >= settings.min && error <= settings.target * Math.abs(mean)) {
+                return new Outcome(StopReason.CONFIDENCE, n, mean, error, unit);
+            }
+            if (n >= Math.max(settings.min, 2 * settings.window)) {
+                double last = mean(scores, n - settings.window, n);
+                double previous = mean(scores, n - 2 * settings.window, n - settings.window);
+                if (Math.abs(last - previous) <= settings.target * Math.abs(mean) && error <= 2 * settings.target * Math.abs(mean)) {
+                    return new Outcome(StopReason.STEADY_STATE, n, mean, error, unit);
+                }
+            }
+            if (n >= settings.max) {
+                return new Outcome(StopReason.MAX_ITERATIONS, n, mean, error, unit);
+            }
+        }
+    }
+
+    private static double mean(List<Double> values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values.get(i);
+        }
+        return sum / (to - from);
+    }
+
+    private static double stdDev(List<Double> values, double mean) {
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.size() - 1));
+    }
+
+    /**
+     * Cornish-Fisher expansion of 0.975 quantile of Student's t-distribution, error is below 2% for {@code df >= 3}
+     *
+     * @param df Degrees of freedom
+     * @return Quantile
+     */
+    static double tQuantile975(int df) {
+        double z = 1.959964;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        return z + (z3 + z) / (4.0 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df);
+    }
+
+    /**
+     * @param entry Benchmark from list
+     * @return All combinations of parameters of benchmark, single empty combination for benchmark without parameters
+     */
+    private static List<Map<String, String>> combinations(BenchmarkListEntry entry) {
+        List<Map<String, String>> combinations = List.of(new LinkedHashMap<>());
+        if (!entry.getParams().hasValue()) {
+            return combinations;
+        }
+        for (Map.Entry<String, String[]> param : new TreeMap<>(entry.getParams().get()).entrySet()) {
+            List<Map<String, String>> next = new ArrayList<>(combinations.size() * param.getValue().length);
+            for (Map<String, String> combination : combinations) {
+                for (String value : param.getValue()) {
+                    Map<String, String> copy = new LinkedHashMap<>(combination);
+                    copy.put(param.getKey(), value);
+                    next.add(copy);
+                }
+            }
+            combinations = next;
+        }
+        return combinations;
+    }
+
+    private static Outcome fork(BenchmarkListEntry entry, Map<String, String> params, Settings settings) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (entry.getJvmArgsAppend().hasValue()) {
+            command.addAll(entry.getJvmArgsAppend().get());
+        }
+        command.addAll(settings.asJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(AdaptiveRunner.class.getName());
+        command.add(FORK);
+        command.add(entry.getUsername());
+        command.add(entry.getMode().shortLabel());
+        params.forEach((key, value) -> command.add(key + "=" + value));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Outcome outcome = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(OUTCOME)) {
+                    outcome = Outcome.fromLine(line);
+                } else {
+                    System.err.println(line);
+                }
+            }
+        }
+        int code = process.waitFor();
+        if (code != 0 || outcome == null) {
+            throw new IllegalStateException("Fork failed with exit code " + code + ": " + entry.getUsername() + " " + params);
+        }
+        return outcome;
+    }
+
+    private static void forked(String[] args) throws RunnerException {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            int split = args[i].indexOf('=');
+            params.put(args[i].substring(0, split), args[i].substring(split + 1));
+        }
+        Outcome outcome = measure(args[1], Mode.deepValueOf(args[2]), params, new Settings());
+        System.out.println(outcome.toLine());
+    }
+
+    /**
+     * @param args Regexps of benchmarks to include
+     * @throws Exception Possible exception
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && FORK.equals(args[0])) {
+            forked(args);
+            return;
+        }
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: AdaptiveRunner <include regexp>...");
+        }
+        Settings settings = new Settings();
+        SortedSet<BenchmarkListEntry> entries = BenchmarkList.defaultList().find(
+                OutputFormatFactory.createFormatInstance(System.out, VerboseMode.SILENT),
+                Arrays.asList(args),
+                List.of()
+        );
+        long started = System.nanoTime();
+        int iterations = 0;
+        int combinations = 0;
+        Map<StopReason, Integer> reasons = new EnumMap<>(StopReason.class);
+        System.out.println("| Benchmark | Mode | Parameters | Iterations | Score | Error | Units | Stop reason |");
+        System.out.println("| --------- | ---- | ---------- | ---------- | ----- | ----- | ----- | ----------- |");
+        for (BenchmarkListEntry entry : entries) {
+            for (Map<String, String> params : combinations(entry)) {
+                Outcome outcome = fork(entry, params, settings);
+                iterations += outcome.iterations;
+                combinations++;
+                reasons.merge(outcome.reason, 1, Integer::sum);
+                System.out.println(String.format(Locale.ROOT, "| %s | %s | %s | %d | %.3f | %.3f | %s | %s |",
+                        entry.getUsername().substring(entry.getUserClassQName().lastIndexOf('.') + 1),
+                        entry.getMode().shortLabel(),
+                        params.entrySet().stream().map(Object::toString).collect(joining(" ")),
+                        outcome.iterations, outcome.score, outcome.error, outcome.unit, outcome.reason
+                ));
+            }
+        }
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT,
+                "Combinations: %d, measurement iterations: %d (%.1f per combination, limit %d), stop reasons: %s, wall time: %d s",
+                combinations, iterations, combinations == 0 ? 0.0 : (double) iterations / combinations, settings.max, reasons,
+                (System.nanoTime() - started) / 1_000_000_000L
+        ));
+    }
+}
@@ -0,0 +1,98 @@
+package name.valery1707.runner;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Cost of dispatch of {@code CollectionIteration} ({@code switch} over {@code mode} and shared call sites)
+ * by comparison with generated monomorphic specialisations {@code CollectionIteration_*} from Maven profile {@code specialize}.
+ * <p>
+ * Score of both is per element, so overhead per invocation is difference of scores multiplied by size,
+ * and share is part of score of dispatched benchmark which is spent outside of loop over collection.
+ * <p>
+ * Via the command line:
+ * $ mvn -Pspecialize clean package
+ * $ java -jar target/benchmarks.jar 'CollectionIteration' -rf json -rff target/result.json
+ * $ java -cp target/benchmarks.jar name.valery1707.runner.DispatchSkew target/result.json
+ */
+@SuppressWarnings("WeakerAccess")
+public final class DispatchSkew {
+    private static final String DISPATCHED = "CollectionIteration";
+
+    private DispatchSkew() {
+    }
+
+    private static int size(String method) {
+        return Integer.parseInt(method.substring(method.indexOf('_') + 1).replace("_", ""));
+    }
+
+    /**
+     * @param rows Results of dispatched and specialised benchmarks
+     * @return Count of compared pairs
+     */
+    public static int print(List<Report.Row> rows) {
+        Map<List<Object>, Report.Row> dispatched = new HashMap<>();
+        Map<List<Object>, Report.Row> specialized = new TreeMap<>(Comparator
+                .comparing((List<Object> key) -> (String) key.get(0))
+                .thenComparing(key -> (String) key.get(1))
+                .thenComparing(key -> (Integer) key.get(2))
+        );
+        for (Report.Row row : rows) {
+            if (DISPATCHED.equals(row.clazz)) {
+                dispatched.put(List.of(row.params.get("clazz"), row.params.get("mode"), size(row.method)), row);
+            } else if (row.clazz.startsWith(DISPATCHED + "_")) {
+                specialized.put(List.of(row.params.get("clazz"), row.method.substring(0, row.method.indexOf('_')), size(row.method)), row);
+            }
+        }
+        Map<Integer, List<Double>> shares = new TreeMap<>();
+        int pairs = 0;
+        System.out.println("| Collection | Mode | Size | Dispatched | Specialized | Units | Overhead per invocation | Share |");
+        System.out.println("| ---------- | ---- | ---- | ---------- | ----------- | ----- | ----------------------- | ----- |");
+        for (Map.Entry<List<Object>, Report.Row> entry : specialized.entrySet()) {
+            Report.Row base = dispatched.get(entry.getKey());
+            if (base == null) {
+                continue;
+            }
+            int size = (Integer) entry.getKey().get(2);
+            double share = (base.score - entry.getValue().score) / base.score;
+            shares.computeIfAbsent(size, key -> new ArrayList<>()).add(share);
+            pairs++;
+            System.out.println(String.format(Locale.ROOT, "| %s | %s | %d | %.3f | %.3f | %s | %.3f | %.1f%% |",
+                    entry.getKey().get(0), entry.getKey().get(1), size,
+                    base.score, entry.getValue().score, base.unit,
+                    (base.score - entry.getValue().score) * size, 100 * share
+            ));
+        }
+        System.out.println();
+        System.out.println("| Size | Pairs | Median share | Max share |");
+        System.out.println("| ---- | ----- | ------------ | --------- |");
+        shares.forEach((size, values) -> {
+            Collections.sort(values);
+            double median = values.size() % 2 == 1
+                    ? values.get(values.size() / 2)
+                    : (values.get(values.size() / 2 - 1) + values.get(values.size() / 2)) / 2;
+            System.out.println(String.format(Locale.ROOT, "| %d | %d | %.1f%% | %.1f%% |",
+                    size, values.size(), 100 * median, 100 * values.get(values.size() - 1)
+            ));
+        });
+        return pairs;
+    }
+
+    /**
+     * @param args Files with results of JMH in JSON format
+     * @throws IOException Possible exception
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: DispatchSkew <result.json>...");
+        }
+        List<Report.Row> rows = new ArrayList<>();
+        for (String file : args) {
+            rows.addAll(Report.read(Paths.get(file)));
+        }
+        if (print(rows) == 0) {
+            System.err.println("There are no pairs of " + DISPATCHED + " and its specialisations, was it built with -Pspecialize?");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package name.valery1707.runner;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.PrintStream;
+import java.util.*;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Runs same benchmarks once per JVM configuration and prints table with column per configuration.
+ * <p>
+ * Configurations are cartesian product of values of selected {@link #AXES}, every value is set of
+ * {@code jvmArgsAppend} and first value of every axis is JVM default without flags
+ * (default collector depends on count of CPUs and memory, so it is not always G1).
+ * <p>
+ * Via the command line:
+ * $ java -cp target/benchmarks.jar -Dmatrix.axes=gc,heap name.valery1707.runner.JvmMatrix 'CollectionIteration.benchmark_1_000$'
+ * <p>
+ * Existing {@code main} entry points can pass own options: {@code JvmMatrix.run(opt, JvmMatrix.expand("gc"))}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class JvmMatrix {
+    public static final List<Axis> AXES = List.of(
+            new Axis("gc")
+                    .value("default")
+                    .value("G1", "-XX:+UseG1GC")
+                    .value("Parallel", "-XX:+UseParallelGC")
+                    .value("ZGC", "-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC"),
+            new Axis("heap")
+                    .value("default")
+                    .value("512m", "-Xmx512m")
+                    .value("4g", "-Xmx4g"),
+            new Axis("oops")
+                    .value("compressed")
+                    .value("uncompressed", "-XX:-UseCompressedOops"),
+            new Axis("tiered")
+                    .value("C2")
+                    .value("C1", "-XX:TieredStopAtLevel=1"),
+            new Axis("pretouch")
+                    .value("lazy")
+                    .value("pretouch", "-XX:+AlwaysPreTouch")
+    );
+
+    private JvmMatrix() {
+    }
+
+    /**
+     * Named value set of one JVM setting
+     */
+    public static final class Axis {
+        private final String name;
+        private final Map<String, List<String>> values = new LinkedHashMap<>();
+
+        public Axis(String name) {
+            this.name = name;
+        }
+
+        public Axis value(String value, String... jvmArgs) {
+            values.put(value, List.of(jvmArgs));
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * One point of matrix: name is joined names of axis values, e.g. {@code G1/512m}
+     */
+    public static final class Configuration {
+        private final String name;
+        private final List<String> jvmArgs;
+
+        public Configuration(String name, List<String> jvmArgs) {
+            this.name = name;
+            this.jvmArgs = List.copyOf(jvmArgs);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getJvmArgs() {
+            return jvmArgs;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + jvmArgs;
+        }
+    }
+
+    /**
+     * @param axes Names of axes from {@link #AXES}
+     * @return Cartesian product of values of axes
+     */
+    public static List<Configuration> expand(String... axes) {
+        List<Axis> selected = new ArrayList<>(axes.length);
+        for (String name : axes) {
+            selected.add(AXES.stream()
+                    .filter(axis -> axis.name.equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown axis: " + name))
+            );
+        }
+        return expand(selected);
+    }
+
+    public static List<Configuration> expand(List<Axis> axes) {
+        List<Configuration> configurations = List.of(new Configuration("", List.of()));
+        for (Axis axis : axes) {
+            List<Configuration> next = new ArrayList<>(configurations.size() * axis.values.size());
+            for (Configuration configuration : configurations) {
+                axis.values.forEach((value, jvmArgs) -> {
+                    List<String> args = new ArrayList<>(configuration.jvmArgs);
+                    args.addAll(jvmArgs);
+                    next.add(new Configuration(configuration.name.isEmpty() ? value : configuration.name + "/" + value, args));
+                });
+            }
+            configurations = next;
+        }
+        return configurations;
+    }
+
+    /**
+     * Runs benchmarks from {@code base} in single fork per configuration.
+     * Configuration which fails to start (e.g. collector is not supported by JVM) is reported and skipped.
+     *
+     * @param base           Options of benchmarks
+     * @param configurations Configurations of JVM
+     * @return Results by configuration name
+     */
+    public static Map<String, Collection<RunResult>> run(Options base, List<Configuration> configurations) {
+        Map<String, Collection<RunResult>> results = new LinkedHashMap<>();
+        for (Configuration configuration : configurations) {
+            Options options = new OptionsBuilder()
+                    .parent(base)
+                    .forks(1)
+                    .jvmArgsAppend(configuration.jvmArgs.toArray(new String[0]))
+                    .build();
+            try {
+                results.put(configuration.name, new Runner(options).run());
+            } catch (RunnerException e) {
+                System.err.println("Configuration failed: " + configuration + ": " + e.getMessage());
+                results.put(configuration.name, List.of());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param params Parameters of benchmark
+     * @return Short name of benchmark with values of parameters, e.g. {@code CollectionIteration.benchmark_1 clazz=java.util.HashSet mode=forEach}
+     */
+    public static String label(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int method = benchmark.lastIndexOf('.');
+        String label = benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1);
+        String values = params.getParamsKeys().stream()
+                .map(key -> key + "=" + params.getParam(key))
+                .collect(joining(" "));
+        return values.isEmpty() ? label : label + " " + values;
+    }
+
+    private static String cell(Result<?> result) {
+        return Double.isNaN(result.getScoreError())
+                ? String.format(Locale.ROOT, "%.3f %s", result.getScore(), result.getScoreUnit())
+                : String.format(Locale.ROOT, "%.3f ± %.3f %s", result.getScore(), result.getScoreError(), result.getScoreUnit());
+    }
+
+    /**
+     * Prints Markdown table: row per benchmark with parameters, column per configuration.
+     *
+     * @param results Results by configuration name
+     * @param out     Target
+     */
+    public static void print(Map<String, Collection<RunResult>> results, PrintStream out) {
+        Map<String, Map<String, String>> cellByConfigurationByLabel = new LinkedHashMap<>();
+        results.forEach((configuration, runs) -> runs.forEach(run -> {
+            Result<?> primary = run.getPrimaryResult();
+            cellByConfigurationByLabel
+                    .computeIfAbsent(label(run.getParams()), __ -> new LinkedHashMap<>())
+                    .put(configuration, cell(primary));
+        }));
+        List<String> configurations = new ArrayList<>(results.keySet());
+        out.println(configurations.stream().collect(joining(" | ", "| Benchmark | ", " |")));
+        out.println(Collections.nCopies(configurations.size() + 1, "-------------").stream().collect(joining(" | ", "| ", " |")));
+        cellByConfigurationByLabel.forEach((label, cellByConfiguration) -> out.println(configurations.stream()
+                .map(configuration -> cellByConfiguration.getOrDefault(configuration, "-"))
+                .collect(joining(" | ", "| " + label + " | ", " |"))
+        ));
+    }
+
+    /**
+     * @param args Regexps of benchmarks to include, system property {@code matrix.axes} holds comma separated names of axes
+     * @throws RunnerException Possible exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: JvmMatrix <include regexp>...");
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        for (String include : args) {
+            builder.include(include);
+        }
+        Options opt = builder
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        List<Configuration> configurations = expand(System.getProperty("matrix.axes", "gc").split(","));
+        System.out.println("Configurations: " + configurations.stream().map(Configuration::toString).collect(toList()));
+        print(run(opt, configurations), System.out);
+    }
+}
@@ -0,0 +1,337 @@
+package name.valery1707.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import name.valery1707.profile.FootprintProfiler;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Report from JMH results in JSON format ({@code -rf json}) for any benchmark class: Markdown tables and SVG charts.
+ * <p>
+ * Results of every class are pivoted: values of axes from {@code report.columns} become columns,
+ * all other parameters become rows. Pseudo-axis {@code method} is name of benchmark method,
+ * so sizes of {@code benchmark_1_000} style methods become columns by default.
+ * <p>
+ * Every class gets tables of score with error, {@code gc.alloc.rate.norm} (when run with {@code -prof gc}),
+ * retained heap per element (when run with {@code -prof name.valery1707.profile.FootprintProfiler})
+ * and score per invocation: JMH divides time by {@code @OperationsPerInvocation} (and multiplies throughput),
+ * which is count of elements in most benchmarks here, so score itself is per element and score per invocation
+ * is multiplied back for time modes and divided back for {@code thrpt}.
+ * <p>
+ * Via the command line:
+ * $ java -jar target/benchmarks.jar 'CollectionIteration' -prof gc -rf json -rff target/result.json
+ * $ java -cp target/benchmarks.jar -Dreport.columns=method name.valery1707.runner.Report target/result.json
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Report {
+    public static final String METHOD = "method";
+    private static final String ALLOCATION = "·gc.alloc.rate.norm";
+    private static final Pattern NUMBER = Pattern.compile("(\\d[\\d_]*)(\\.\\d+)?$");
+    private static final String[] COLORS = {"#4e79a7", "#f28e2b", "#e15759", "#76b7b2", "#59a14f", "#edc948", "#b07aa1", "#ff9da7", "#9c755f", "#bab0ac"};
+
+    private Report() {
+    }
+
+    /**
+     * Primary result of one benchmark with one set of parameters
+     */
+    public static final class Row {
+        public final String clazz;
+        public final String method;
+        public final String mode;
+        public final Map<String, String> params;
+        public final double score;
+        public final double error;
+        public final String unit;
+        public final double allocation;
+        public final double footprint;
+        public final int operations;
+
+        public Row(String clazz, String method, String mode, Map<String, String> params, double score, double error, String unit, double allocation, double footprint, int operations) {
+            this.clazz = clazz;
+            this.method = method;
+            this.mode = mode;
+            this.params = params;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.allocation = allocation;
+            this.footprint = footprint;
+            this.operations = operations;
+        }
+
+        public String axis(String axis) {
+            return METHOD.equals(axis) ? method : params.getOrDefault(axis, "");
+        }
+
+        /**
+         * @return Score of whole invocation: time is per operation, so it is multiplied, but throughput is divided
+         */
+        public double perInvocation() {
+            return "thrpt".equals(mode) ? score / operations : score * operations;
+        }
+    }
+
+    /**
+     * @param file Results of JMH in JSON format
+     * @return Rows of results
+     * @throws IOException Possible exception
+     */
+    public static List<Row> read(Path file) throws IOException {
+        Map<String, Integer> operations = operationsPerInvocation();
+        List<Row> rows = new ArrayList<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            String benchmark = run.path("benchmark").asText();
+            int method = benchmark.lastIndexOf('.');
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION);
+            JsonNode footprint = run.path("secondaryMetrics").path(FootprintProfiler.LABEL);
+            rows.add(new Row(
+                    benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1, method),
+                    benchmark.substring(method + 1),
+                    run.path("mode").asText(),
+                    params,
+                    primary.path("score").asDouble(),
+                    primary.path("scoreError").asDouble(Double.NaN),
+                    primary.path("scoreUnit").asText(),
+                    allocation.isMissingNode() ? Double.NaN : allocation.path("score").asDouble(),
+                    footprint.isMissingNode() ? Double.NaN : footprint.path("score").asDouble(),
+                    operations.getOrDefault(benchmark, 1)
+            ));
+        }
+        return rows;
+    }
+
+    /**
+     * @return Value of {@code @OperationsPerInvocation} by full name of benchmark, from benchmark list on class path
+     */
+    private static Map<String, Integer> operationsPerInvocation() {
+        Map<String, Integer> operations = new HashMap<>();
+        try {
+            for (BenchmarkListEntry entry : BenchmarkList.defaultList().find(OutputFormatFactory.createFormatInstance(System.out, VerboseMode.SILENT), List.of(".*"), List.of())) {
+                operations.put(entry.getUsername(), entry.getOperationsPerInvocation().orElse(1));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Benchmark list is not available, score per invocation is same as score: " + e.getMessage());
+        }
+        return operations;
+    }
+
+    /**
+     * Orders values of axis: numerically by trailing number (e.g. {@code benchmark_1_000}) when every value has it,
+     * otherwise in order of first appearance.
+     */
+    private static List<String> order(Collection<String> values) {
+        List<String> ordered = new ArrayList<>(new LinkedHashSet<>(values));
+        if (ordered.stream().allMatch(value -> NUMBER.matcher(value).find())) {
+            ordered.sort(Comparator.comparingDouble(Report::number));
+        }
+        return ordered;
+    }
+
+    private static double number(String value) {
+        Matcher matcher = NUMBER.matcher(value);
+        if (!matcher.find()) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(matcher.group(1).replace("_", "") + (matcher.group(2) == null ? "" : matcher.group(2)));
+    }
+
+    private static String label(Row row, List<String> axes) {
+        return axes.stream().map(axis -> METHOD.equals(axis) ? row.method : axis + "=" + row.axis(axis)).collect(joining(" "));
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, Math.abs(value) >= 100 ? "%.1f" : "%.3f", value);
+    }
+
+    /**
+     * Pivot table of one class
+     */
+    private static final class Pivot {
+        private final List<String> columns;
+        private final Map<String, Map<String, Row>> cells = new LinkedHashMap<>();
+
+        private Pivot(List<Row> rows, List<String> columnAxes) {
+            List<String> rowAxes = new ArrayList<>();
+            if (!columnAxes.contains(METHOD) && rows.stream().map(row -> row.method).distinct().count() > 1) {
+                rowAxes.add(METHOD);
+            }
+            rows.stream()
+                    .flatMap(row -> row.params.keySet().stream())
+                    .distinct()
+                    .filter(axis -> !columnAxes.contains(axis))
+                    .forEach(rowAxes::add);
+            boolean modes = rows.stream().map(row -> row.mode).distinct().count() > 1;
+            columns = order(rows.stream().map(row -> label(row, columnAxes)).collect(toList()));
+            for (Row row : rows) {
+                String label = label(row, rowAxes) + (modes ? " " + row.mode : "");
+                cells.computeIfAbsent(label.isEmpty() ? row.clazz : label, __ -> new HashMap<>()).put(label(row, columnAxes), row);
+            }
+        }
+
+        private void table(PrintStream out, String title, ToDoubleFunction<Row> value, boolean withError) {
+            out.println("#### " + title);
+            out.println();
+            out.println(columns.stream().collect(joining(" | ", "| | ", " |")));
+            out.println(Collections.nCopies(columns.size() + 1, "---").stream().collect(joining(" | ", "| ", " |")));
+            cells.forEach((label, byColumn) -> out.println(columns.stream()
+                    .map(byColumn::get)
+                    .map(row -> row == null ? "-" : format(value.applyAsDouble(row)) + (withError && !Double.isNaN(row.error) ? " ± " + format(row.error) : ""))
+                    .collect(joining(" | ", "| " + label + " | ", " |"))
+            ));
+            out.println();
+        }
+
+        /**
+         * Line per row over columns, logarithmic scale of score, whiskers of error.
+         */
+        private String svg(String title, String unit) {
+            int width = 720;
+            int legendHeight = 16 * cells.size();
+            int plotTop = 40;
+            int plotHeight = 300;
+            int left = 70;
+            int right = width - 20;
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (Map<String, Row> byColumn : cells.values()) {
+                for (Row row : byColumn.values()) {
+                    if (row.score > 0) {
+                        min = Math.min(min, row.score);
+                        max = Math.max(max, row.score + (Double.isNaN(row.error) ? 0 : row.error));
+                    }
+                }
+            }
+            double low = Math.floor(Math.log10(min));
+            double high = Math.max(Math.ceil(Math.log10(max)), low + 1);
+            StringBuilder svg = new StringBuilder();
+            svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" font-family=\"sans-serif\" font-size=\"11\">%n",
+                    width, plotTop + plotHeight + 40 + legendHeight));
+            svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"20\" font-size=\"14\">%s (%s, log scale)</text>%n", left, escape(title), escape(unit)));
+            for (double decade = low; decade <= high; decade++) {
+                double y = plotTop + plotHeight - (decade - low) / (high - low) * plotHeight;
+                svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#ddd\"/>%n", left, y, right, y));
+                svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">1e%d</text>%n", left - 4, y + 4, (int) decade));
+            }
+            double step = columns.size() > 1 ? (double) (right - left) / (columns.size() - 1) : 0;
+            for (int i = 0; i < columns.size(); i++) {
+                svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>%n",
+                        left + i * step, plotTop + plotHeight + 16, escape(columns.get(i))));
+            }
+            int series = 0;
+            for (Map.Entry<String, Map<String, Row>> entry : cells.entrySet()) {
+                String color = COLORS[series % COLORS.length];
+                StringBuilder points = new StringBuilder();
+                for (int i = 0; i < columns.size(); i++) {
+                    Row row = entry.getValue().get(columns.get(i));
+                    if (row == null || row.score <= 0) {
+                        continue;
+                    }
+                    double x = left + i * step;
+                    double y = y(row.score, low, high, plotTop, plotHeight);
+                    points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                    if (!Double.isNaN(row.error) && row.error > 0) {
+                        double top = y(row.score + row.error, low, high, plotTop, plotHeight);
+                        double bottom = row.score > row.error ? y(row.score - row.error, low, high, plotTop, plotHeight) : plotTop + plotHeight;
+                        svg.append(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" stroke=\"%s\"/>%n", x, top, x, bottom, color));
+                    }
+                    svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"2.5\" fill=\"%s\"><title>%s: %s</title></circle>%n",
+                            x, y, color, escape(entry.getKey()), format(row.score)));
+                }
+                svg.append(String.format(Locale.ROOT, "<polyline points=\"%s\" fill=\"none\" stroke=\"%s\"/>%n", points.toString().trim(), color));
+                int legendY = plotTop + plotHeight + 36 + 16 * series;
+                svg.append(String.format(Locale.ROOT, "<rect x=\"%d\" y=\"%d\" width=\"10\" height=\"10\" fill=\"%s\"/>%n", left, legendY - 9, color));
+                svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\">%s</text>%n", left + 14, legendY, escape(entry.getKey())));
+                series++;
+            }
+            svg.append("</svg>\n");
+            return svg.toString();
+        }
+
+        private static double y(double value, double low, double high, int top, int height) {
+            return top + height - (Math.log10(value) - low) / (high - low) * height;
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+
+    /**
+     * Writes {@code README.md} and SVG chart per class into {@code dir}.
+     *
+     * @param rows       Rows of results
+     * @param columnAxes Axes of columns
+     * @param dir        Target directory
+     * @throws IOException Possible exception
+     */
+    public static void write(List<Row> rows, List<String> columnAxes, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Map<String, List<Row>> byClass = new TreeMap<>();
+        rows.forEach(row -> byClass.computeIfAbsent(row.clazz, __ -> new ArrayList<>()).add(row));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("README.md")), true, UTF_8.name())) {
+            for (Map.Entry<String, List<Row>> entry : byClass.entrySet()) {
+                String clazz = entry.getKey();
+                List<Row> classRows = entry.getValue();
+                Pivot pivot = new Pivot(classRows, columnAxes);
+                String unit = classRows.get(0).unit;
+                out.println("### " + clazz);
+                out.println();
+                Files.write(dir.resolve(clazz + ".svg"), pivot.svg(clazz, unit).getBytes(UTF_8));
+                out.println("![" + clazz + "](" + clazz + ".svg)");
+                out.println();
+                pivot.table(out, "Score, " + unit, row -> row.score, true);
+                if (classRows.stream().anyMatch(row -> !Double.isNaN(row.allocation))) {
+                    pivot.table(out, "Allocation, B/op", row -> row.allocation, false);
+                }
+                if (classRows.stream().anyMatch(row -> !Double.isNaN(row.footprint))) {
+                    pivot.table(out, "Footprint, B/element", row -> row.footprint, false);
+                }
+                if (classRows.stream().anyMatch(row -> row.operations != 1)) {
+                    pivot.table(out, "Score per invocation (@OperationsPerInvocation applied back), " + unit.replace("/op", "/call"), Row::perInvocation, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param args Files with results of JMH in JSON format
+     * @throws IOException Possible exception
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: Report <result.json>...");
+        }
+        List<Row> rows = new ArrayList<>();
+        for (String file : args) {
+            rows.addAll(read(Paths.get(file)));
+        }
+        List<String> columns = Arrays.stream(System.getProperty("report.columns", METHOD).split(",")).map(String::trim).collect(toList());
+        Path dir = Paths.get(System.getProperty("report.dir", "target/report"));
+        write(rows, columns, dir);
+        System.out.println("Report: " + dir.resolve("README.md"));
+    }
+}
@@ -0,0 +1,441 @@
+package name.valery1707.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Append-only local store of JMH results in JSON format and statistical comparison of two commits.
+ * <p>
+ * Every run is saved into new file {@code <dir>/<commit>/<timestamp>.json} and one line is appended to {@code <dir>/index.tsv}
+ * with key of run: commit, JVM, JVM flags and fingerprint of host. Files are never rewritten.
+ * <p>
+ * Comparison uses only runs with same JVM, flags and host as current environment, all runs of commit are pooled.
+ * Benchmark is regression when it is worse than baseline by more than {@code results.threshold}
+ * and difference is significant on level {@code results.alpha} by one-sided test {@code results.test}:
+ * {@code mannWhitney} (normal approximation with ties correction) or {@code bootstrap} of means.
+ * <p>
+ * Via the command line:
+ * $ java -cp target/benchmarks.jar -Dresults.jvmArgs='-XX:+UseParallelGC' name.valery1707.runner.ResultStore record 'StreamPipelines' -wi 3 -i 5
+ * $ java -cp target/benchmarks.jar name.valery1707.runner.ResultStore compare 6818210
+ * <p>
+ * Command {@code compare} exits with code 1 when any regression is found.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ResultStore {
+    private static final String INDEX = "index.tsv";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final int BOOTSTRAP_RESAMPLES = 10_000;
+
+    private final Path dir;
+
+    public ResultStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Key of run, every field is free of tabs
+     */
+    public static final class Key {
+        public final String commit;
+        public final String jvm;
+        public final String flags;
+        public final String host;
+
+        public Key(String commit, String jvm, String flags, String host) {
+            this.commit = commit;
+            this.jvm = jvm;
+            this.flags = flags.isEmpty() ? "-" : flags;
+            this.host = host;
+        }
+
+        /**
+         * @param flags JVM flags of forks
+         * @return Key of current environment
+         */
+        public static Key current(String flags) {
+            return new Key(commit(), jvm(), flags, host());
+        }
+
+        private boolean sameEnvironment(Key other) {
+            return jvm.equals(other.jvm) && flags.equals(other.flags) && host.equals(other.host);
+        }
+    }
+
+    private static final class Entry {
+        private final String timestamp;
+        private final Key key;
+        private final Path file;
+
+        private Entry(String timestamp, Key key, Path file) {
+            this.timestamp = timestamp;
+            this.key = key;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Runs benchmarks and saves results.
+     *
+     * @param key     Key of run
+     * @param options Command line options of JMH: regexps of benchmarks, iterations and so on
+     * @return Saved file
+     * @throws RunnerException Possible exception
+     * @throws IOException     Possible exception
+     */
+    public Path record(Key key, CommandLineOptions options) throws RunnerException, IOException {
+        String timestamp = LocalDateTime.now().format(TIMESTAMP);
+        Path file = dir.resolve(key.commit).resolve(timestamp + ".json");
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            throw new IllegalStateException("Result already exists: " + file);
+        }
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(options)
+                .resultFormat(ResultFormatType.JSON)
+                .result(file.toString());
+        if (!"-".equals(key.flags)) {
+            builder.jvmArgsAppend(key.flags.split(" "));
+        }
+        new Runner(builder.build()).run();
+        String line = String.join("\t", timestamp, key.commit, key.jvm, key.flags, key.host, dir.relativize(file).toString()) + "\n";
+        Files.write(dir.resolve(INDEX), line.getBytes(UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return file;
+    }
+
+    private List<Entry> entries() throws IOException {
+        Path index = dir.resolve(INDEX);
+        if (!Files.exists(index)) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(index, UTF_8)) {
+            String[] parts = line.split("\t");
+            if (parts.length == 6) {
+                entries.add(new Entry(parts[0], new Key(parts[1], parts[2], parts[3], parts[4]), dir.resolve(parts[5])));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Raw iteration scores of every benchmark and parameters of commit, pooled from all runs of same environment.
+     *
+     * @param commit      Prefix of commit
+     * @param environment Key of environment
+     * @return Sample by label: benchmark, mode and parameters
+     * @throws IOException Possible exception
+     */
+    public Map<String, Sample> load(String commit, Key environment) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Sample> samples = new TreeMap<>();
+        List<Entry> entries = entries().stream()
+                .filter(entry -> entry.key.commit.startsWith(commit))
+                .filter(entry -> entry.key.sameEnvironment(environment))
+                .collect(toList());
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("No results of commit " + commit + " for environment " + environment.jvm + " " + environment.flags + " " + environment.host);
+        }
+        for (Entry entry : entries) {
+            for (JsonNode run : mapper.readTree(entry.file.toFile())) {
+                String mode = run.path("mode").asText();
+                Sample sample = samples.computeIfAbsent(label(run), __ -> new Sample(mode, run.path("primaryMetric").path("scoreUnit").asText()));
+                JsonNode metric = run.path("primaryMetric");
+                if (metric.has("rawData")) {
+                    for (JsonNode fork : metric.path("rawData")) {
+                        for (JsonNode iteration : fork) {
+                            sample.values.add(iteration.asDouble());
+                        }
+                    }
+                } else {
+                    //Histogram of SampleTime: one mean per iteration
+                    for (JsonNode fork : metric.path("rawDataHistogram")) {
+                        for (JsonNode iteration : fork) {
+                            double sum = 0;
+                            long count = 0;
+                            for (JsonNode bin : iteration) {
+                                sum += bin.get(0).asDouble() * bin.get(1).asLong();
+                                count += bin.get(1).asLong();
+                            }
+                            if (count > 0) {
+                                sample.values.add(sum / count);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static String label(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        int method = benchmark.lastIndexOf('.');
+        StringBuilder label = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1))
+                .append(' ').append(run.path("mode").asText());
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+        params.forEach((key, value) -> label.append(' ').append(key).append('=').append(value));
+        return label.toString();
+    }
+
+    /**
+     * Iteration scores of one benchmark
+     */
+    public static final class Sample {
+        public final String mode;
+        public final String unit;
+        public final List<Double> values = new ArrayList<>();
+
+        public Sample(String mode, String unit) {
+            this.mode = mode;
+            this.unit = unit;
+        }
+
+        /**
+         * @return Sign of change which makes result worse: throughput is better when higher, time is better when lower
+         */
+        public int worse() {
+            return "thrpt".equals(mode) ? -1 : 1;
+        }
+
+        public double mean() {
+            return values.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+        }
+    }
+
+    /**
+     * One-sided Mann-Whitney U test with normal approximation and correction for ties.
+     *
+     * @param baseline  Baseline values
+     * @param candidate Candidate values
+     * @param worse     Sign of worse change
+     * @return P-value of hypothesis that candidate is not worse than baseline
+     */
+    public static double mannWhitney(List<Double> baseline, List<Double> candidate, int worse) {
+        int n1 = baseline.size();
+        int n2 = candidate.size();
+        double[][] all = new double[n1 + n2][];
+        for (int i = 0; i < n1; i++) {
+            all[i] = new double[]{baseline.get(i), 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            all[n1 + i] = new double[]{candidate.get(i), 1};
+        }
+        Arrays.sort(all, Comparator.comparingDouble(value -> value[0]));
+        double rankSum = 0;
+        double ties = 0;
+        for (int i = 0; i < all.length; ) {
+            int j = i;
+            while (j < all.length && all[j][0] == all[i][0]) {
+                j++;
+            }
+            double rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (all[k][1] == 1) {
+                    rankSum += rank;
+                }
+            }
+            double t = j - i;
+            ties += t * t * t - t;
+            i = j;
+        }
+        double u = rankSum - n2 * (n2 + 1) / 2.0;
+        double mean = n1 * n2 / 2.0;
+        double n = n1 + n2;
+        double variance = n1 * n2 / 12.0 * ((n + 1) - ties / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = worse * (u - mean) / Math.sqrt(variance);
+        return 0.5 * erfc(z / Math.sqrt(2));
+    }
+
+    /**
+     * One-sided bootstrap test of difference of means.
+     *
+     * @param baseline  Baseline values
+     * @param candidate Candidate values
+     * @param worse     Sign of worse change
+     * @return Part of resamples where candidate is not worse than baseline
+     */
+    public static double bootstrap(List<Double> baseline, List<Double> candidate, int worse) {
+        Random random = new Random(baseline.size() * 31L + candidate.size());
+        int better = 0;
+        for (int i = 0; i < BOOTSTRAP_RESAMPLES; i++) {
+            if (worse * (resampleMean(candidate, random) - resampleMean(baseline, random)) <= 0) {
+                better++;
+            }
+        }
+        return (double) better / BOOTSTRAP_RESAMPLES;
+    }
+
+    private static double resampleMean(List<Double> values, Random random) {
+        double sum = 0;
+        for (int i = 0; i < values.size(); i++) {
+            sum += values.get(random.nextInt(values.size()));
+        }
+        return sum / values.size();
+    }
+
+    /**
+     * Complementary error function, Numerical Recipes approximation with relative error below 1.2e-7
+     */
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+
+    /**
+     * Prints Markdown table of comparison.
+     *
+     * @param baseline  Samples of baseline
+     * @param candidate Samples of candidate
+     * @param test      Name of test: {@code mannWhitney} or {@code bootstrap}
+     * @param threshold Minimal relative change to report
+     * @param alpha     Level of significance
+     * @return Count of regressions
+     */
+    public static int compare(Map<String, Sample> baseline, Map<String, Sample> candidate, String test, double threshold, double alpha) {
+        int regressions = 0;
+        System.out.println("| Benchmark | Baseline | Candidate | Units | Change | p | Verdict |");
+        System.out.println("| --------- | -------- | --------- | ----- | ------ | - | ------- |");
+        for (Map.Entry<String, Sample> entry : candidate.entrySet()) {
+            Sample base = baseline.get(entry.getKey());
+            Sample current = entry.getValue();
+            if (base == null || base.values.isEmpty() || current.values.isEmpty()) {
+                continue;
+            }
+            double change = (current.mean() - base.mean()) / base.mean();
+            double p;
+            switch (test) {
+                case "mannWhitney":
+                    p = mannWhitney(base.values, current.values, current.worse());
+                    break;
+                case "bootstrap":
+                    p = bootstrap(base.values, current.values, current.worse());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown test: " + test);
+            }
+            String verdict;
+            if (p < alpha && current.worse() * change > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (p < alpha && current.worse() * change < -threshold) {
+                verdict = "improvement";
+            } else {
+                verdict = "same";
+            }
+            System.out.println(String.format(Locale.ROOT, "| %s | %.3f | %.3f | %s | %+.1f%% | %.4f | %s |",
+                    entry.getKey(), base.mean(), current.mean(), current.unit, change * 100, p, verdict
+            ));
+        }
+        return regressions;
+    }
+
+    private static String commit() {
+        String commit = git("rev-parse", "--short", "HEAD");
+        if (commit.isEmpty()) {
+            return "unknown";
+        }
+        return git("status", "--porcelain", "--untracked-files=no").isEmpty() ? commit : commit + "-dirty";
+    }
+
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+                output = reader.lines().collect(joining("\n")).trim();
+            }
+            return process.waitFor() == 0 ? output : "";
+        } catch (IOException e) {
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    private static String jvm() {
+        return (System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version")).replace('\t', ' ');
+    }
+
+    private static String host() {
+        String name;
+        try {
+            name = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            name = "unknown";
+        }
+        String fingerprint = String.join(",",
+                name,
+                System.getProperty("os.name"),
+                System.getProperty("os.arch"),
+                Integer.toString(Runtime.getRuntime().availableProcessors()),
+                Long.toString(Runtime.getRuntime().maxMemory() >> 20)
+        );
+        return name + "#" + Integer.toHexString(fingerprint.hashCode());
+    }
+
+    /**
+     * @param args {@code record <JMH options>...} or {@code compare <baseline commit> [<candidate commit>]}
+     * @throws Exception Possible exception
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: ResultStore record <JMH options>... | compare <baseline commit> [<candidate commit>]");
+        }
+        ResultStore store = new ResultStore(Paths.get(System.getProperty("results.dir", "results")));
+        Key environment = Key.current(System.getProperty("results.jvmArgs", "").trim());
+        switch (args[0]) {
+            case "record":
+                Path file = store.record(environment, new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length)));
+                System.out.println("Saved: " + file);
+                break;
+            case "compare":
+                String candidate = args.length > 2 ? args[2] : environment.commit;
+                int regressions = compare(
+                        store.load(args[1], environment),
+                        store.load(candidate, environment),
+                        System.getProperty("results.test", "mannWhitney"),
+                        Double.parseDouble(System.getProperty("results.threshold", "0.05")),
+                        Double.parseDouble(System.getProperty("results.alpha", "0.01"))
+                );
+                System.out.println("Regressions: " + regressions);
+                System.exit(regressions > 0 ? 1 : 0);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+}
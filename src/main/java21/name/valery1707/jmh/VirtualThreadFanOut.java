@@ -0,0 +1,131 @@
+package name.valery1707.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fan-out of many small tasks: every task iterates own small collection and waits on simulated blocking I/O.
+ * One operation submits {@link #tasks} tasks and waits for all of them.
+ * <p>
+ * Requires JDK 21, built only with profile {@code jdk21}:
+ * $ mvn -Pjdk21 clean package
+ * $ java -jar target/benchmarks.jar '.*VirtualThreadFanOut.*'
+ */
+@SuppressWarnings("DefaultAnnotationParam")
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class VirtualThreadFanOut {
+    /**
+     * Size of fixed platform thread pool, as typical blocking request pool
+     */
+    private static final int POOL_SIZE = 200;
+
+    @Param({"virtual", "fixed", "forkJoin"})
+    public String mode;
+
+    @Param({"1000", "10000"})
+    public int tasks;
+
+    /**
+     * Size of every small collection
+     */
+    @Param({"10", "100"})
+    public int size;
+
+    /**
+     * Simulated blocking wait of every task, {@link LockSupport#parkNanos(long)}
+     */
+    @Param({"0", "10000", "100000"})
+    public long waitNanos;
+
+    private ExecutorService executor;
+    private List<List<Integer>> collections;
+    private long[] results;
+
+    @Setup
+    public void setup() {
+        switch (mode) {
+            case "virtual":
+                executor = Executors.newVirtualThreadPerTaskExecutor();
+                break;
+            case "fixed":
+                executor = Executors.newFixedThreadPool(POOL_SIZE);
+                break;
+            case "forkJoin":
+                executor = new ForkJoinPool();
+                break;
+            default:
+                throw new IllegalStateException("Unknown mode: " + mode);
+        }
+        collections = new ArrayList<>(tasks);
+        for (int task = 0; task < tasks; task++) {
+            List<Integer> collection = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                collection.add(task + i);
+            }
+            collections.add(collection);
+        }
+        results = new long[tasks];
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void task(int task, CountDownLatch done) {
+        try {
+            long sum = 0;
+            for (Integer value : collections.get(task)) {
+                sum += value;
+            }
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            results[task] = sum;
+        } finally {
+            done.countDown();
+        }
+    }
+
+    @Benchmark
+    public void benchmark(final Blackhole hole) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int task = 0; task < tasks; task++) {
+            int current = task;
+            executor.execute(() -> task(current, done));
+        }
+        done.await();
+        hole.consume(results);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(VirtualThreadFanOut.class.getSimpleName())
+                .warmupIterations(1)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(1)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(opt).run();
+    }
+}